@@ -627,12 +627,11 @@ public class DashboardController {
                 currentCity = city;
 
                 HttpRequest aqiReq = HttpRequest.newBuilder()
-                        .uri(URI.create(BACKEND + "/aqi/locate?lat=" + lat + "&lon=" + lon))
+                        .uri(URI.create(BACKEND + "/dashboard/locate?lat=" + lat + "&lon=" + lon))
                         .GET().build();
                 HttpResponse<String> aqiRes = httpClient.send(aqiReq, HttpResponse.BodyHandlers.ofString());
                 if (aqiRes.statusCode() == 200) {
-                    updateUIFromResponse(aqiRes.body());
-                    loadForecastData(city, lat, lon);
+                    applyDashboard(aqiRes.body());
                 }
             } catch (Exception e) {
                 Platform.runLater(() -> showError("Could not detect location"));
@@ -687,6 +686,7 @@ public class DashboardController {
 
     // ─────────────────────────────────────────────────────────────
     // LOAD AQI DATA
+    // One /dashboard call returns current AQI, forecast and pollutants together
     // ─────────────────────────────────────────────────────────────
     private void loadAQIData(String city, double lat, double lon) {
         Platform.runLater(() -> {
@@ -696,16 +696,15 @@ public class DashboardController {
         Thread thread = new Thread(() -> {
             try {
                 String url = (lat != 0 && lon != 0)
-                        ? BACKEND + "/aqi/locate?lat=" + lat + "&lon=" + lon
-                        : BACKEND + "/aqi?city=" + URLEncoder.encode(city, StandardCharsets.UTF_8);
+                        ? BACKEND + "/dashboard/locate?lat=" + lat + "&lon=" + lon
+                        : BACKEND + "/dashboard?city=" + URLEncoder.encode(city, StandardCharsets.UTF_8);
 
                 HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
                 HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
 
                 if (response.statusCode() == 200) {
                     currentCity = city;
-                    updateUIFromResponse(response.body());
-                    loadForecastData(city, lat, lon);
+                    applyDashboard(response.body());
                 } else {
                     JsonNode err = objectMapper.readTree(response.body());
                     Platform.runLater(() -> showError(err.path("error").asText("Failed")));
@@ -719,9 +718,15 @@ public class DashboardController {
         thread.start();
     }
 
-    private void updateUIFromResponse(String body) throws Exception {
-        JsonNode data = objectMapper.readTree(body);
-        lastAqiData   = data;
+    private void applyDashboard(String body) throws Exception {
+        JsonNode dashboard = objectMapper.readTree(body);
+        lastForecastData   = dashboard.path("forecast");
+        updateUIFromResponse(dashboard.path("current"));
+        Platform.runLater(this::redrawForecastChart);
+    }
+
+    private void updateUIFromResponse(JsonNode data) {
+        lastAqiData = data;
 
         int    aqi      = data.path("aqi").asInt();
         String cityName = data.path("city").asText("--");
@@ -899,28 +904,6 @@ public class DashboardController {
     // ─────────────────────────────────────────────────────────────
     // TAB 2: FORECAST
     // ─────────────────────────────────────────────────────────────
-    private void loadForecastData(String city, double lat, double lon) {
-        Thread t = new Thread(() -> {
-            try {
-                String url = (lat != 0 && lon != 0)
-                        ? BACKEND + "/forecast/locate?lat=" + lat + "&lon=" + lon
-                        : BACKEND + "/forecast?city=" + URLEncoder.encode(city, StandardCharsets.UTF_8);
-
-                HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-                if (response.statusCode() == 200) {
-                    lastForecastData = objectMapper.readTree(response.body());
-                    Platform.runLater(this::redrawForecastChart);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
-        t.setDaemon(true);
-        t.start();
-    }
-
     private void redrawForecastChart() {
         if (lastForecastData == null) return;
 
@@ -0,0 +1,118 @@
+package com.example.aqi_backend.bench;
+
+import com.example.aqi_backend.cpcb.CpcbAqi;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overall CPCB AQI for a series of readings.
+ *
+ * n=120 is one /api/aqi/history response, n=8760 a year of hourly readings.
+ * legacyMap reproduces the old AqiService code (breakpoint table built per
+ * call, HashMap per reading, Collections.max); scalar and batch are the two
+ * CpcbAqi entry points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CpcbAqiBenchmark {
+
+    @Param({"120", "8760"})
+    public int n;
+
+    private double[] pm25, pm10, no2, o3, co, so2;
+    private int[] out;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(7);
+        pm25 = new double[n]; pm10 = new double[n]; no2 = new double[n];
+        o3   = new double[n]; co   = new double[n]; so2 = new double[n];
+        for (int i = 0; i < n; i++) {
+            pm25[i] = 5 + random.nextDouble() * 180;
+            pm10[i] = pm25[i] * (1.2 + random.nextDouble());
+            no2[i]  = random.nextDouble() * 120;
+            o3[i]   = random.nextDouble() * 150;
+            co[i]   = 200 + random.nextDouble() * 2500;
+            so2[i]  = random.nextDouble() * 40;
+        }
+        out = new int[n];
+    }
+
+    @Benchmark
+    public int[] legacyMap() {
+        for (int i = 0; i < n; i++) {
+            Map<String, Double> sub = new HashMap<>();
+            if (pm25[i] > 0) sub.put("pm25", legacyPm25(pm25[i]));
+            if (pm10[i] > 0) sub.put("pm10", legacyPm10(pm10[i]));
+            if (no2[i]  > 0) sub.put("no2",  legacyNo2(no2[i]));
+            if (o3[i]   > 0) sub.put("o3",   legacyO3(o3[i]));
+            if (co[i]   > 0) sub.put("co",   legacyCo(co[i]));
+            if (so2[i]  > 0) sub.put("so2",  legacySo2(so2[i]));
+            out[i] = sub.isEmpty() ? 0 : (int) Math.round(Collections.max(sub.values()));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] scalar() {
+        for (int i = 0; i < n; i++) {
+            out[i] = CpcbAqi.aqi(pm25[i], pm10[i], no2[i], o3[i], co[i], so2[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] batch() {
+        CpcbAqi.aqi(pm25, pm10, no2, o3, co, so2, out, n);
+        return out;
+    }
+
+    // ── Pre-CpcbAqi implementation, kept verbatim as the baseline ──
+    private static double legacyPm25(double cp) {
+        double[][] t = {{0,30,0,50},{30,60,51,100},{60,90,101,200},
+                {90,120,201,300},{120,250,301,400},{250,500,401,500}};
+        return legacyInterpolate(cp, t);
+    }
+    private static double legacyPm10(double cp) {
+        double[][] t = {{0,50,0,50},{50,100,51,100},{100,250,101,200},
+                {250,350,201,300},{350,430,301,400},{430,600,401,500}};
+        return legacyInterpolate(cp, t);
+    }
+    private static double legacyNo2(double cp) {
+        double[][] t = {{0,40,0,50},{40,80,51,100},{80,180,101,200},
+                {180,280,201,300},{280,400,301,400},{400,800,401,500}};
+        return legacyInterpolate(cp, t);
+    }
+    private static double legacyO3(double cp) {
+        double[][] t = {{0,50,0,50},{50,100,51,100},{100,168,101,200},
+                {168,208,201,300},{208,748,301,400},{748,1000,401,500}};
+        return legacyInterpolate(cp, t);
+    }
+    private static double legacyCo(double cp) {
+        cp = cp / 1000.0;
+        double[][] t = {{0,1.0,0,50},{1.0,2.0,51,100},{2.0,10,101,200},
+                {10,17,201,300},{17,34,301,400},{34,50,401,500}};
+        return legacyInterpolate(cp, t);
+    }
+    private static double legacySo2(double cp) {
+        double[][] t = {{0,40,0,50},{40,80,51,100},{80,380,101,200},
+                {380,800,201,300},{800,1600,301,400},{1600,2100,401,500}};
+        return legacyInterpolate(cp, t);
+    }
+    private static double legacyInterpolate(double cp, double[][] table) {
+        for (double[] row : table) {
+            if (cp <= row[1])
+                return ((row[3]-row[2])/(row[1]-row[0])) * (cp-row[0]) + row[2];
+        }
+        return 500;
+    }
+}
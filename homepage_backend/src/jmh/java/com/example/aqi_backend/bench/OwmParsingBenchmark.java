@@ -0,0 +1,114 @@
+package com.example.aqi_backend.bench;
+
+import com.example.aqi_backend.client.CurrentWeather;
+import com.example.aqi_backend.client.ForecastSlot;
+import com.example.aqi_backend.client.OwmJsonDecoder;
+import com.example.aqi_backend.client.PollutionSample;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tree vs streaming decoding of recorded OWM payloads.
+ *
+ * The *Tree benchmarks reproduce the previous AqiService path: body read
+ * into a String, parsed into a JsonNode tree, fields picked with path().
+ * The *Streaming benchmarks run OwmJsonDecoder straight off the byte stream.
+ * Both sides build the same records, so the difference is parsing alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwmParsingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] weather;
+    private byte[] history;
+    private byte[] forecast;
+
+    @Setup
+    public void load() {
+        weather  = Payloads.load("weather.json");
+        history  = Payloads.load("air_pollution_history.json");
+        forecast = Payloads.load("forecast.json");
+    }
+
+    // ── data/2.5/weather ──────────────────────────────────────────
+    @Benchmark
+    public CurrentWeather weatherTree() throws IOException {
+        JsonNode root = objectMapper.readTree(new String(weather, StandardCharsets.UTF_8));
+        return new CurrentWeather(
+                root.path("main").path("temp").asDouble(),
+                root.path("main").path("feels_like").asDouble(),
+                root.path("main").path("temp_min").asDouble(),
+                root.path("main").path("temp_max").asDouble(),
+                root.path("main").path("humidity").asDouble(),
+                root.path("main").path("pressure").asDouble(),
+                root.path("wind").path("speed").asDouble(),
+                root.path("wind").path("deg").asDouble(),
+                root.path("visibility").asDouble(),
+                root.path("clouds").path("all").asDouble(),
+                root.path("sys").path("sunrise").asLong(),
+                root.path("sys").path("sunset").asLong(),
+                root.path("weather").get(0).path("description").asText(),
+                root.path("weather").get(0).path("icon").asText());
+    }
+
+    @Benchmark
+    public CurrentWeather weatherStreaming() throws IOException {
+        return OwmJsonDecoder.weather(new ByteArrayInputStream(weather));
+    }
+
+    // ── data/2.5/air_pollution/history (120 points) ───────────────
+    @Benchmark
+    public List<PollutionSample> historyTree() throws IOException {
+        JsonNode root = objectMapper.readTree(new String(history, StandardCharsets.UTF_8));
+        List<PollutionSample> out = new ArrayList<>();
+        for (JsonNode item : root.path("list")) {
+            JsonNode c = item.path("components");
+            out.add(new PollutionSample(item.path("dt").asLong(),
+                    c.path("pm2_5").asDouble(), c.path("pm10").asDouble(),
+                    c.path("no2").asDouble(), c.path("o3").asDouble(),
+                    c.path("co").asDouble(), c.path("so2").asDouble(),
+                    c.path("nh3").asDouble(), c.path("no").asDouble()));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<PollutionSample> historyStreaming() throws IOException {
+        return OwmJsonDecoder.pollution(new ByteArrayInputStream(history));
+    }
+
+    // ── data/2.5/forecast (40 slots) ──────────────────────────────
+    @Benchmark
+    public List<ForecastSlot> forecastTree() throws IOException {
+        JsonNode root = objectMapper.readTree(new String(forecast, StandardCharsets.UTF_8));
+        List<ForecastSlot> out = new ArrayList<>();
+        for (JsonNode item : root.path("list")) {
+            out.add(new ForecastSlot(item.path("dt").asLong(),
+                    item.path("dt_txt").asText(),
+                    item.path("main").path("temp").asDouble(),
+                    item.path("main").path("humidity").asDouble(),
+                    item.path("weather").get(0).path("description").asText(),
+                    item.path("weather").get(0).path("icon").asText()));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<ForecastSlot> forecastStreaming() throws IOException {
+        return OwmJsonDecoder.forecast(new ByteArrayInputStream(forecast));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.aqi_backend.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/** Recorded OWM responses (src/jmh/resources/owm) used as benchmark input. */
+public final class Payloads {
+
+    private Payloads() { }
+
+    public static byte[] load(String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/owm/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing payload " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
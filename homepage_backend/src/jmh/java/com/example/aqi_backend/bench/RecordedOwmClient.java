@@ -0,0 +1,41 @@
+package com.example.aqi_backend.bench;
+
+import com.example.aqi_backend.client.BodyDecoder;
+import com.example.aqi_backend.client.OwmClient;
+import com.example.aqi_backend.client.OwmClientException;
+import com.example.aqi_backend.client.OwmEndpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * OwmClient that answers every call with the recorded payload for its
+ * endpoint, decoded on the calling thread. Lets benchmarks drive AqiService
+ * end to end on real response shapes without a network.
+ */
+public class RecordedOwmClient implements OwmClient {
+
+    private final Map<OwmEndpoint, byte[]> bodies = new EnumMap<>(OwmEndpoint.class);
+
+    public RecordedOwmClient() {
+        bodies.put(OwmEndpoint.GEO_DIRECT,             Payloads.load("geo.json"));
+        bodies.put(OwmEndpoint.GEO_REVERSE,            Payloads.load("geo.json"));
+        bodies.put(OwmEndpoint.WEATHER,                Payloads.load("weather.json"));
+        bodies.put(OwmEndpoint.AIR_POLLUTION,          Payloads.load("air_pollution.json"));
+        bodies.put(OwmEndpoint.AIR_POLLUTION_FORECAST, Payloads.load("air_pollution_forecast.json"));
+        bodies.put(OwmEndpoint.AIR_POLLUTION_HISTORY,  Payloads.load("air_pollution_history.json"));
+        bodies.put(OwmEndpoint.FORECAST,               Payloads.load("forecast.json"));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(OwmEndpoint endpoint, Map<String, ?> params, BodyDecoder<T> decoder) {
+        try {
+            return CompletableFuture.completedFuture(decoder.decode(new ByteArrayInputStream(bodies.get(endpoint))));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new OwmClientException(endpoint, "Recorded payload failed to decode", e));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.aqi_backend.bench;
+
+import com.example.aqi_backend.catalog.CityCatalog;
+import com.example.aqi_backend.client.UpstreamMetrics;
+import com.example.aqi_backend.concurrent.FanOutExecutor;
+import com.example.aqi_backend.model.AqiReading;
+import com.example.aqi_backend.model.ForecastReport;
+import com.example.aqi_backend.model.HistoryPoint;
+import com.example.aqi_backend.model.MapCity;
+import com.example.aqi_backend.quota.QuotaManager;
+import com.example.aqi_backend.resilience.UpstreamBreakers;
+import com.example.aqi_backend.service.AqiService;
+import com.example.aqi_backend.service.MapSnapshotService;
+import com.example.aqi_backend.store.ReadingStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies the controllers return.
+ *
+ * Bodies are produced once by a real AqiService / MapSnapshotService fed
+ * from the recorded payloads, so their shape and size match production.
+ * The ObjectMapper is built the way Spring Boot builds its default one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private AqiReading reading;
+    private ForecastReport forecast;
+    private List<HistoryPoint> history;
+    private List<MapCity> mapCities;
+
+    @Setup
+    public void build() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FanOutExecutor fanOut = new FanOutExecutor(registry, 1000, 4, 32, 4, 6, 2, 2, 2, 2, 100, 4, 4);
+        try {
+            ReadingStore store = new ReadingStore(registry, false, Path.of("."), 6, Duration.ofDays(7), Duration.ofMinutes(10));
+            AqiService aqiService = new AqiService(new RecordedOwmClient(), registry, fanOut, store, new CityCatalog(registry),
+                    new UpstreamBreakers(registry, false, 1, Duration.ZERO),
+                    new QuotaManager(registry, false, 1, 1, 1, 1, 1, 1),
+                    new UpstreamMetrics(registry),
+                    100, Duration.ofHours(1), Duration.ofMinutes(1),
+                    100, Duration.ofHours(1), 6, Duration.ofSeconds(10));
+            reading  = aqiService.getAqiByCity("Kochi");
+            forecast = aqiService.getForecast("Kochi");
+            history  = aqiService.getAqiHistory(9.9312, 76.2673);
+
+            MapSnapshotService mapSnapshots = new MapSnapshotService(aqiService, fanOut, registry, Duration.ofSeconds(60));
+            mapSnapshots.refresh();
+            mapCities = mapSnapshots.current().cities();
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
+    @Benchmark
+    public byte[] aqi() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reading);
+    }
+
+    @Benchmark
+    public byte[] forecast() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(forecast);
+    }
+
+    @Benchmark
+    public byte[] history() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+
+    @Benchmark
+    public byte[] map() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mapCities);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.aqi_backend.service;
+
+import com.example.aqi_backend.bench.Payloads;
+import com.example.aqi_backend.client.ForecastSlot;
+import com.example.aqi_backend.client.OwmJsonDecoder;
+import com.example.aqi_backend.client.PollutionSample;
+import com.example.aqi_backend.cpcb.AqiSeries;
+import com.example.aqi_backend.cpcb.CpcbAqi;
+import com.example.aqi_backend.model.DailySummary;
+import com.example.aqi_backend.model.ForecastEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two CPU steps of AqiService.fetchForecastData on recorded payloads
+ * (40 weather slots, 96 hourly pollution points): aligning each slot with
+ * the pollution AQI, and folding the entries into per-day min/max.
+ * findClosestAqi is the old boxed-map scan, kept as the baseline for
+ * alignSeries. Lives in the service package because summarizeDays is
+ * package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForecastBenchmark {
+
+    private List<ForecastSlot> slots;
+    private Map<Long, Integer> pollutionByTime;
+    private AqiSeries pollutionSeries;
+    private long[] slotTimes;
+    private List<ForecastEntry> entries;
+
+    @Setup
+    public void load() throws IOException {
+        slots = OwmJsonDecoder.forecast(new ByteArrayInputStream(Payloads.load("forecast.json")));
+        List<PollutionSample> pollution = OwmJsonDecoder.pollution(
+                new ByteArrayInputStream(Payloads.load("air_pollution_forecast.json")));
+
+        pollutionByTime = new LinkedHashMap<>();
+        long[] pollTimes = new long[pollution.size()];
+        int[] pollAqi = new int[pollution.size()];
+        for (int i = 0; i < pollTimes.length; i++) {
+            PollutionSample s = pollution.get(i);
+            pollTimes[i] = s.dt();
+            pollAqi[i]   = CpcbAqi.aqi(s.pm25(), s.pm10(), s.no2(), s.o3(), s.co(), s.so2());
+            pollutionByTime.put(pollTimes[i], pollAqi[i]);
+        }
+        pollutionSeries = AqiSeries.of(pollTimes, pollAqi);
+
+        slotTimes = new long[slots.size()];
+        for (int i = 0; i < slotTimes.length; i++) slotTimes[i] = slots.get(i).dt();
+
+        entries = new ArrayList<>(slots.size());
+        for (ForecastSlot s : slots) {
+            entries.add(new ForecastEntry(s.dt(), s.dtTxt(), s.temp(), s.humidity(), s.description(), s.icon(),
+                    pollutionSeries.at(s.dt())));
+        }
+    }
+
+    @Benchmark
+    public int[] findClosestAqi() {
+        int[] aqi = new int[slots.size()];
+        for (int i = 0; i < aqi.length; i++) {
+            aqi[i] = legacyFindClosestAqi(slots.get(i).dt(), pollutionByTime);
+        }
+        return aqi;
+    }
+
+    @Benchmark
+    public int[] alignSeries() {
+        int[] aqi = new int[slotTimes.length];
+        pollutionSeries.alignTo(slotTimes, aqi);
+        return aqi;
+    }
+
+    @Benchmark
+    public Map<String, DailySummary> dailySummary() {
+        return AqiService.summarizeDays(entries);
+    }
+
+    // Pre-AqiSeries implementation, kept verbatim as the baseline
+    private static int legacyFindClosestAqi(long dt, Map<Long, Integer> pollutionByTime) {
+        long closest = -1;
+        long minDiff = Long.MAX_VALUE;
+        for (long ts : pollutionByTime.keySet()) {
+            long diff = Math.abs(ts - dt);
+            if (diff < minDiff) { minDiff = diff; closest = ts; }
+        }
+        return closest == -1 ? 0 : pollutionByTime.get(closest);
+    }
+}
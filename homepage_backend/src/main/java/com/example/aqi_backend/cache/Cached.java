@@ -0,0 +1,16 @@
+package com.example.aqi_backend.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A value with the time it was fetched; stale is set when it is past its
+ * fresh period. modifiedAt is when the value last changed: a refresh that
+ * fetches an equal value keeps it, so it can serve as the value's version.
+ */
+public record Cached<V>(V value, Instant fetchedAt, Instant modifiedAt, boolean stale) {
+
+    public long ageSeconds() {
+        return Math.max(0, Duration.between(fetchedAt, Instant.now()).getSeconds());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.aqi_backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process cache with a per-entry TTL and bounded LRU eviction.
+ *
+ * Backed by an access-ordered LinkedHashMap, so every operation takes the
+ * instance lock. Entries are few and operations are O(1), which keeps this
+ * far cheaper than the upstream call it saves.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries;
+
+    private final LongAdder hits      = new LongAdder();
+    private final LongAdder misses    = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringLruCache(int maxSize) {
+        this(maxSize, System::nanoTime);
+    }
+
+    ExpiringLruCache(int maxSize, LongSupplier clock) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        this.maxSize = maxSize;
+        this.clock   = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= ExpiringLruCache.this.maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /** Returns the cached value, or null if absent or expired. */
+    public V get(K key) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            Entry<V> e = entries.get(key);
+            if (e != null && now - e.expiresAt < 0) {
+                hits.increment();
+                return e.value;
+            }
+            if (e != null) entries.remove(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        long expiresAt = clock.getAsLong() + ttl.toNanos();
+        synchronized (this) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount()      { return hits.sum(); }
+    public long missCount()     { return misses.sum(); }
+    public long evictionCount() { return evictions.sum(); }
+
+    /** Hits over all lookups since start; 0 before the first lookup. */
+    public double hitRatio() {
+        long h = hits.sum(), total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /** Publishes hit/miss/eviction counts, hit ratio and size under aqi.cache.* tagged with the cache name. */
+    public ExpiringLruCache<K, V> bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("aqi.cache.requests", this, ExpiringLruCache::hitCount)
+                .tag("cache", cacheName).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("aqi.cache.requests", this, ExpiringLruCache::missCount)
+                .tag("cache", cacheName).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("aqi.cache.evictions", this, ExpiringLruCache::evictionCount)
+                .tag("cache", cacheName)
+                .register(registry);
+        Gauge.builder("aqi.cache.hit.ratio", this, ExpiringLruCache::hitRatio)
+                .tag("cache", cacheName)
+                .register(registry);
+        Gauge.builder("aqi.cache.size", this, ExpiringLruCache::size)
+                .tag("cache", cacheName)
+                .register(registry);
+        return this;
+    }
+
+    private record Entry<V>(V value, long expiresAt) { }
+}
@@ -0,0 +1,43 @@
+package com.example.aqi_backend.cache;
+
+/**
+ * Minimal geohash encoder, used to quantize coordinates into cache keys.
+ *
+ * Precision 5 is a ~4.9 km cell, 6 is ~1.2 km x 0.6 km, 7 is ~150 m.
+ */
+public final class GeoHash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() { }
+
+    public static String encode(double lat, double lon, int precision) {
+        if (precision < 1 || precision > 12)
+            throw new IllegalArgumentException("geohash precision must be 1..12");
+
+        double latLo = -90,  latHi = 90;
+        double lonLo = -180, lonHi = 180;
+        char[] out = new char[precision];
+        boolean evenBit = true;
+        int bit = 0, ch = 0, pos = 0;
+
+        while (pos < precision) {
+            if (evenBit) {
+                double mid = (lonLo + lonHi) / 2;
+                if (lon >= mid) { ch = (ch << 1) | 1; lonLo = mid; }
+                else            { ch = ch << 1;       lonHi = mid; }
+            } else {
+                double mid = (latLo + latHi) / 2;
+                if (lat >= mid) { ch = (ch << 1) | 1; latLo = mid; }
+                else            { ch = ch << 1;       latHi = mid; }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                out[pos++] = BASE32[ch];
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(out);
+    }
+}
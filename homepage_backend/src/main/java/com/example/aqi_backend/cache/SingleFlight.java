@@ -0,0 +1,107 @@
+package com.example.aqi_backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution.
+ *
+ * The first caller for a key runs the loader; anyone arriving while it is
+ * still running waits on the same CompletableFuture and gets the same
+ * result (or the same exception). Nothing is cached once the call finishes.
+ *
+ * executeAsync hands every caller its own copy of the shared future, so a
+ * caller that stops waiting (deadline, sibling failure) cancels only its
+ * copy and the call still completes for everyone else.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed  = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public V execute(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public CompletableFuture<V> executeAsync(K key, Supplier<? extends CompletionStage<V>> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            collapsed.increment();
+            return existing.copy();
+        }
+
+        executed.increment();
+        CompletionStage<V> call;
+        try {
+            call = loader.get();
+        } catch (Throwable t) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(t);
+            return mine.copy();
+        }
+        call.whenComplete((value, t) -> {
+            inFlight.remove(key, mine);
+            if (t != null) mine.completeExceptionally(t);
+            else mine.complete(value);
+        });
+        return mine.copy();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    public long executedCount()  { return executed.sum(); }
+    public long collapsedCount() { return collapsed.sum(); }
+    public int inFlightCount()   { return inFlight.size(); }
+
+    /** Publishes executed/collapsed counts and the in-flight key count, tagged with the flight name. */
+    public SingleFlight<K, V> bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder("aqi.singleflight.calls", this, SingleFlight::executedCount)
+                .tag("flight", name).tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("aqi.singleflight.calls", this, SingleFlight::collapsedCount)
+                .tag("flight", name).tag("result", "collapsed")
+                .register(registry);
+        Gauge.builder("aqi.singleflight.in.flight", this, SingleFlight::inFlightCount)
+                .tag("flight", name)
+                .register(registry);
+        return this;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aqi_backend.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stale-while-revalidate cache in front of a slow loader.
+ *
+ * An entry younger than fresh is returned as is. An older one, up to
+ * maxStale, is returned at once marked stale, and one background refresh per
+ * key is started on the given executor; a failed refresh, or one the
+ * executor rejects, keeps the old entry. Only a missing (or too old) entry makes the caller wait for the
+ * loader, and concurrent misses for one key share a single load.
+ *
+ * A reload that returns a value equal to the cached one keeps the entry's
+ * modifiedAt, so callers can tell a changed value from a re-fetched one.
+ */
+public class StaleWhileRevalidateCache<K, V> {
+
+    private final ExpiringLruCache<K, Cached<V>> entries;
+    private final SingleFlight<K, Cached<V>> loads = new SingleFlight<>();
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+    private final Duration fresh;
+    private final Duration maxStale;
+    private final Executor executor;
+
+    private final LongAdder freshHits       = new LongAdder();
+    private final LongAdder staleHits       = new LongAdder();
+    private final LongAdder misses          = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public StaleWhileRevalidateCache(int maxSize, Duration fresh, Duration maxStale, Executor executor) {
+        if (maxStale.compareTo(fresh) < 0) throw new IllegalArgumentException("maxStale must be >= fresh");
+        this.entries  = new ExpiringLruCache<>(maxSize);
+        this.fresh    = fresh;
+        this.maxStale = maxStale;
+        this.executor = executor;
+    }
+
+    /**
+     * Publishes the underlying cache's aqi.cache.* meters plus
+     * aqi.swr.requests{cache, result=fresh|stale|miss} and
+     * aqi.swr.refresh.failures{cache}.
+     */
+    public StaleWhileRevalidateCache<K, V> bindTo(MeterRegistry registry, String cacheName) {
+        entries.bindTo(registry, cacheName);
+        FunctionCounter.builder("aqi.swr.requests", freshHits, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "fresh")
+                .register(registry);
+        FunctionCounter.builder("aqi.swr.requests", staleHits, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "stale")
+                .register(registry);
+        FunctionCounter.builder("aqi.swr.requests", misses, LongAdder::sum)
+                .tag("cache", cacheName).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("aqi.swr.refresh.failures", refreshFailures, LongAdder::sum)
+                .tag("cache", cacheName)
+                .register(registry);
+        return this;
+    }
+
+    public Cached<V> get(K key, Callable<V> loader) throws Exception {
+        return get(key, loader, loader);
+    }
+
+    /** As get(key, loader), but background refreshes call refresher instead of loader. */
+    public Cached<V> get(K key, Callable<V> loader, Callable<V> refresher) throws Exception {
+        Cached<V> hit = getIfPresent(key, refresher);
+        if (hit != null) return hit;
+        misses.increment();
+        return loads.execute(key, () -> load(key, loader, null));
+    }
+
+    /**
+     * Like get, but returns null on a miss instead of loading. A stale entry
+     * is still returned and revalidated in the background with refresher.
+     */
+    public Cached<V> getIfPresent(K key, Callable<V> refresher) {
+        Cached<V> hit = entries.get(key);
+        if (hit == null) return null;
+        if (Duration.between(hit.fetchedAt(), Instant.now()).compareTo(fresh) < 0) {
+            freshHits.increment();
+            return hit;
+        }
+        staleHits.increment();
+        if (refreshing.add(key)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        load(key, refresher, hit);
+                    } catch (Exception e) {
+                        refreshFailures.increment();
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+            } catch (RuntimeException e) {
+                refreshing.remove(key);
+            }
+        }
+        return new Cached<>(hit.value(), hit.fetchedAt(), hit.modifiedAt(), true);
+    }
+
+    private Cached<V> load(K key, Callable<V> loader, Cached<V> previous) throws Exception {
+        V value = loader.call();
+        Instant now = Instant.now();
+        Instant modifiedAt = previous != null && previous.value().equals(value) ? previous.modifiedAt() : now;
+        Cached<V> loaded = new Cached<>(value, now, modifiedAt, false);
+        entries.put(key, loaded, maxStale);
+        return loaded;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.aqi_backend.catalog;
+
+import com.example.aqi_backend.model.CitySuggestion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Bundled catalog of Indian cities and monitoring stations for /api/search.
+ *
+ * Loaded once from catalog/india-places.csv into two PlaceTries: one keyed
+ * by place name, one by aliases and later words ("Navi Mumbai" also under
+ * "mumbai"). Keys go through normalize(): lower case, diacritics and
+ * punctuation removed. Results are ranked name prefix matches, then alias
+ * prefix matches, then fuzzy matches for queries of three or more
+ * characters; each group by popularity. prefix() leaves out the fuzzy
+ * group, so a caller can tell a known place from a likely typo. The number
+ * of places loaded is published as aqi.catalog.places.
+ */
+@Component
+public class CityCatalog {
+
+    private static final String RESOURCE = "catalog/india-places.csv";
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private final PlaceTrie names = new PlaceTrie();
+    private final PlaceTrie aliases = new PlaceTrie();
+    private final int size;
+
+    public CityCatalog(MeterRegistry meterRegistry) {
+        this.size = load();
+        Gauge.builder("aqi.catalog.places", this, CityCatalog::size).register(meterRegistry);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Up to limit suggestions for query; empty if nothing in the catalog matches. */
+    public List<CitySuggestion> search(String query, int limit) {
+        return suggest(query, limit, true);
+    }
+
+    /** Like search, but only places whose name or an alias starts with query. */
+    public List<CitySuggestion> prefix(String query, int limit) {
+        return suggest(query, limit, false);
+    }
+
+    private List<CitySuggestion> suggest(String query, int limit, boolean fuzzy) {
+        String q = normalize(query);
+        if (q.isEmpty()) return List.of();
+
+        Set<Place> found = new LinkedHashSet<>(names.prefix(q));
+        if (found.size() < limit) found.addAll(aliases.prefix(q));
+        if (fuzzy && found.size() < limit && q.length() >= 3) {
+            int maxEdits = q.length() >= 7 ? 2 : 1;
+            found.addAll(names.fuzzy(q, maxEdits));
+            if (found.size() < limit) found.addAll(aliases.fuzzy(q, maxEdits));
+        }
+
+        List<CitySuggestion> out = new ArrayList<>(Math.min(limit, found.size()));
+        for (Place p : found) {
+            if (out.size() == limit) break;
+            out.add(new CitySuggestion(p.name() + ", " + p.state() + ", IN", p.name(), p.lat(), p.lon()));
+        }
+        return out;
+    }
+
+    static String normalize(String s) {
+        String folded = MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALNUM.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Format: name,state,lat,lon,popularity,aliases  (aliases |-separated; # starts a comment line)
+    private int load() {
+        int count = 0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] f = line.split(",", -1);
+                Place place = new Place(f[0].trim(), f[1].trim(),
+                        Double.parseDouble(f[2]), Double.parseDouble(f[3]), Integer.parseInt(f[4].trim()));
+
+                index(normalize(place.name()), place, names);
+                if (f.length > 5 && !f[5].isBlank()) {
+                    for (String alias : f[5].split("\\|")) index(normalize(alias), place, aliases);
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load " + RESOURCE + ": " + e.getMessage());
+        }
+        return count;
+    }
+
+    private void index(String key, Place place, PlaceTrie trie) {
+        if (key.isEmpty()) return;
+        trie.add(key, place);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            aliases.add(key.substring(i + 1), place);
+        }
+    }
+}
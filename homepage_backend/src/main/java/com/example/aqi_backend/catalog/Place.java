@@ -0,0 +1,4 @@
+package com.example.aqi_backend.catalog;
+
+/** One catalog entry. popularity orders suggestions; higher comes first. */
+record Place(String name, String state, double lat, double lon, int popularity) { }
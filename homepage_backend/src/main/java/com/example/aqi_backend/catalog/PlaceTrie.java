@@ -0,0 +1,115 @@
+package com.example.aqi_backend.catalog;
+
+import java.util.*;
+
+/**
+ * Prefix trie over normalized place keys.
+ *
+ * Every node keeps the best TOP_K places below it, ordered by popularity,
+ * so a prefix lookup is one walk down the query's characters with no
+ * subtree scan. Fuzzy lookup walks the trie with a Levenshtein row per
+ * node, pruning branches that cannot get within the allowed distance; a
+ * node whose path is close enough to the whole query contributes its top
+ * list, which covers its subtree.
+ * Built once, then read-only and safe to share between threads.
+ */
+final class PlaceTrie {
+
+    static final int TOP_K = 10;
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        Place[] top = new Place[0];
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            i = -i - 1;
+            char[] k = new char[keys.length + 1];
+            Node[] ch = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, i);
+            System.arraycopy(children, 0, ch, 0, i);
+            System.arraycopy(keys, i, k, i + 1, keys.length - i);
+            System.arraycopy(children, i, ch, i + 1, children.length - i);
+            k[i] = c;
+            ch[i] = new Node();
+            keys = k;
+            children = ch;
+            return ch[i];
+        }
+
+        void offer(Place p) {
+            for (Place t : top) if (t == p) return;
+            if (top.length == TOP_K && top[TOP_K - 1].popularity() >= p.popularity()) return;
+            Place[] next = Arrays.copyOf(top, Math.min(top.length + 1, TOP_K));
+            int i = Math.min(top.length, TOP_K - 1);
+            while (i > 0 && next[i - 1].popularity() < p.popularity()) {
+                next[i] = next[i - 1];
+                i--;
+            }
+            next[i] = p;
+            top = next;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /** Indexes place under key, which must already be normalized. */
+    void add(String key, Place place) {
+        Node n = root;
+        for (int i = 0; i < key.length(); i++) {
+            n = n.childOrAdd(key.charAt(i));
+            n.offer(place);
+        }
+    }
+
+    /** Places with a key starting with prefix, most popular first. */
+    List<Place> prefix(String prefix) {
+        Node n = root;
+        for (int i = 0; i < prefix.length() && n != null; i++) n = n.child(prefix.charAt(i));
+        return n == null || n == root ? List.of() : Arrays.asList(n.top);
+    }
+
+    /**
+     * Places with a key starting with something within maxEdits edits of
+     * query, closest first and then most popular.
+     */
+    List<Place> fuzzy(String query, int maxEdits) {
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i < row.length; i++) row[i] = i;
+
+        Map<Place, Integer> distances = new HashMap<>();
+        walk(root, query, row, maxEdits, distances);
+
+        List<Place> out = new ArrayList<>(distances.keySet());
+        out.sort(Comparator.<Place>comparingInt(distances::get)
+                .thenComparing(Comparator.comparingInt(Place::popularity).reversed()));
+        return out;
+    }
+
+    private void walk(Node node, String query, int[] prev, int maxEdits, Map<Place, Integer> out) {
+        for (int c = 0; c < node.keys.length; c++) {
+            char ch = node.keys[c];
+            int[] row = new int[prev.length];
+            row[0] = prev[0] + 1;
+            int best = row[0];
+            for (int i = 1; i < row.length; i++) {
+                int cost = query.charAt(i - 1) == ch ? 0 : 1;
+                row[i] = Math.min(Math.min(row[i - 1] + 1, prev[i] + 1), prev[i - 1] + cost);
+                best = Math.min(best, row[i]);
+            }
+            Node child = node.children[c];
+            int distance = row[row.length - 1];
+            if (distance <= maxEdits) {
+                for (Place p : child.top) out.merge(p, distance, Math::min);
+            }
+            if (best <= maxEdits) walk(child, query, row, maxEdits, out);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.aqi_backend.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Turns a response body stream into a value. The client closes the stream afterwards. */
+@FunctionalInterface
+public interface BodyDecoder<T> {
+    T decode(InputStream body) throws IOException;
+}
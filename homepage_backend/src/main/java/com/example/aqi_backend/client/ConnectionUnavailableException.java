@@ -0,0 +1,14 @@
+package com.example.aqi_backend.client;
+
+/**
+ * No connection to the endpoint could be taken within the client's acquire
+ * timeout, so nothing was sent. Says nothing about OWM's health.
+ */
+public class ConnectionUnavailableException extends OwmClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConnectionUnavailableException(OwmEndpoint endpoint, String message, Throwable cause) {
+        super(endpoint, message, cause);
+    }
+}
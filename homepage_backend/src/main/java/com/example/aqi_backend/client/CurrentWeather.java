@@ -0,0 +1,12 @@
+package com.example.aqi_backend.client;
+
+/**
+ * The fields of a data/2.5/weather response the backend uses, in OWM units
+ * (metric temperatures, wind in m/s, visibility in metres).
+ */
+public record CurrentWeather(double temp, double feelsLike, double tempMin, double tempMax,
+                             double humidity, double pressure,
+                             double windSpeed, double windDeg,
+                             double visibility, double clouds,
+                             long sunrise, long sunset,
+                             String description, String icon) { }
@@ -0,0 +1,5 @@
+package com.example.aqi_backend.client;
+
+/** One 3-hour slot of a data/2.5/forecast response. */
+public record ForecastSlot(long dt, String dtTxt, double temp, double humidity,
+                           String description, String icon) { }
@@ -0,0 +1,4 @@
+package com.example.aqi_backend.client;
+
+/** One entry of a geo/1.0/direct or geo/1.0/reverse response. Missing strings are null. */
+public record GeoPlace(String name, String state, String country, double lat, double lon) { }
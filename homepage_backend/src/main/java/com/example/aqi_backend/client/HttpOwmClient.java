@@ -0,0 +1,117 @@
+package com.example.aqi_backend.client;
+
+import com.example.aqi_backend.concurrent.AsyncSemaphore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * OwmClient over the JDK HttpClient.
+ *
+ * One client instance is shared for the whole application, so connections
+ * are pooled and kept alive across calls (HTTP/2 where the server offers it,
+ * HTTP/1.1 otherwise). Each endpoint gets its own permit pool so one slow
+ * route (e.g. history) cannot take every connection; waiting for a permit
+ * is part of the returned future and never blocks the caller. The idle keep-alive
+ * period is a JVM-wide setting: -Djdk.httpclient.keepalive.timeout=SECONDS.
+ */
+@Component
+@ConditionalOnProperty(name = "owm.client", havingValue = "http", matchIfMissing = true)
+public class HttpOwmClient implements OwmClient {
+
+    private final String apiKey;
+    private final String baseUrl;
+    private final Duration readTimeout;
+    private final Duration acquireTimeout;
+    private final HttpClient http;
+    private final Map<OwmEndpoint, AsyncSemaphore> routePermits = new EnumMap<>(OwmEndpoint.class);
+
+    public HttpOwmClient(@Value("${owm.api.key}") String apiKey,
+                         @Value("${owm.base-url:https://api.openweathermap.org}") String baseUrl,
+                         @Value("${owm.http.connect-timeout:5s}") Duration connectTimeout,
+                         @Value("${owm.http.read-timeout:10s}") Duration readTimeout,
+                         @Value("${owm.http.max-per-route:16}") int maxPerRoute,
+                         @Value("${owm.http.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.apiKey         = apiKey;
+        this.baseUrl        = baseUrl;
+        this.readTimeout    = readTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        for (OwmEndpoint e : OwmEndpoint.values()) {
+            routePermits.put(e, new AsyncSemaphore(maxPerRoute));
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(OwmEndpoint endpoint, Map<String, ?> params, BodyDecoder<T> decoder) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(buildUri(endpoint, params))
+                    .timeout(readTimeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        AsyncSemaphore permits = routePermits.get(endpoint);
+        return permits.acquire(acquireTimeout)
+                .exceptionally(t -> {
+                    throw new ConnectionUnavailableException(endpoint,
+                            "No free connection for " + endpoint.shortName() + " within " + acquireTimeout, t);
+                })
+                .thenCompose(permit -> {
+                    CompletableFuture<HttpResponse<InputStream>> sent;
+                    try {
+                        sent = http.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+                    } catch (RuntimeException e) {
+                        permits.release();
+                        throw e;
+                    }
+                    return sent.thenApply(response -> decode(endpoint, response, decoder))
+                            .whenComplete((r, t) -> permits.release());
+                });
+    }
+
+    private static <T> T decode(OwmEndpoint endpoint, HttpResponse<InputStream> response, BodyDecoder<T> decoder) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new OwmClientException(endpoint, response.statusCode(),
+                        endpoint.shortName() + " returned HTTP " + response.statusCode());
+            }
+            return decoder.decode(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private URI buildUri(OwmEndpoint endpoint, Map<String, ?> params) {
+        StringBuilder sb = new StringBuilder(baseUrl).append(endpoint.path()).append('?');
+        for (Map.Entry<String, ?> p : params.entrySet()) {
+            sb.append(p.getKey()).append('=')
+              .append(URLEncoder.encode(String.valueOf(p.getValue()), StandardCharsets.UTF_8))
+              .append('&');
+        }
+        sb.append("appid=").append(apiKey);
+        return URI.create(sb.toString());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.aqi_backend.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Transport to OpenWeatherMap. Implementations add the API key and base URL;
+ * callers pass the endpoint, its query parameters and a decoder for the body.
+ *
+ * Selected with owm.client: "http" (default, pooled HTTP client) or "stub"
+ * (synthetic responses, no network) for offline load tests.
+ */
+public interface OwmClient {
+
+    <T> CompletableFuture<T> getAsync(OwmEndpoint endpoint, Map<String, ?> params, BodyDecoder<T> decoder);
+
+    /** Blocking form of {@link #getAsync}; rethrows the underlying failure rather than a wrapper. */
+    default <T> T get(OwmEndpoint endpoint, Map<String, ?> params, BodyDecoder<T> decoder) {
+        try {
+            return getAsync(endpoint, params, decoder).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OwmClientException(endpoint, "Interrupted waiting for " + endpoint.shortName(), e);
+        } catch (ExecutionException e) {
+            throw unwrap(endpoint, e.getCause());
+        }
+    }
+
+    static RuntimeException unwrap(OwmEndpoint endpoint, Throwable t) {
+        while (t instanceof CompletionException || t instanceof ExecutionException) {
+            if (t.getCause() == null) break;
+            t = t.getCause();
+        }
+        if (t instanceof RuntimeException re) return re;
+        return new OwmClientException(endpoint, endpoint.shortName() + " call failed: " + t.getMessage(), t);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.aqi_backend.client;
+
+/** An OWM call failed: non-2xx status, transport error or undecodable body. */
+public class OwmClientException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final OwmEndpoint endpoint;
+    private final int status;
+
+    public OwmClientException(OwmEndpoint endpoint, int status, String message) {
+        super(message);
+        this.endpoint = endpoint;
+        this.status   = status;
+    }
+
+    public OwmClientException(OwmEndpoint endpoint, String message, Throwable cause) {
+        super(message, cause);
+        this.endpoint = endpoint;
+        this.status   = -1;
+    }
+
+    public OwmEndpoint getEndpoint() { return endpoint; }
+
+    /** HTTP status, or -1 if the call never got a response. */
+    public int getStatus() { return status; }
+}
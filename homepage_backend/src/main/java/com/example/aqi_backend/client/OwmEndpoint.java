@@ -0,0 +1,24 @@
+package com.example.aqi_backend.client;
+
+/** The OpenWeatherMap endpoints the backend calls, with a short name used for keys and metrics. */
+public enum OwmEndpoint {
+
+    GEO_DIRECT             ("geo",                    "/geo/1.0/direct"),
+    GEO_REVERSE            ("reverse",                "/geo/1.0/reverse"),
+    WEATHER                ("weather",                "/data/2.5/weather"),
+    AIR_POLLUTION          ("air_pollution",          "/data/2.5/air_pollution"),
+    FORECAST               ("forecast",               "/data/2.5/forecast"),
+    AIR_POLLUTION_FORECAST ("air_pollution_forecast", "/data/2.5/air_pollution/forecast"),
+    AIR_POLLUTION_HISTORY  ("history",                "/data/2.5/air_pollution/history");
+
+    private final String shortName;
+    private final String path;
+
+    OwmEndpoint(String shortName, String path) {
+        this.shortName = shortName;
+        this.path      = path;
+    }
+
+    public String shortName() { return shortName; }
+    public String path()      { return path; }
+}
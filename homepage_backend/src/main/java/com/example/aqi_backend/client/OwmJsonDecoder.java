@@ -0,0 +1,232 @@
+package com.example.aqi_backend.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoders for OWM responses.
+ *
+ * Each method walks the body once with a Jackson JsonParser and keeps only
+ * the fields the backend reads, so no response String and no JsonNode tree is
+ * ever built. Unknown fields are skipped; missing numbers decode as 0 and
+ * missing weather text as "", matching what JsonNode.path(..).asXxx() gave.
+ * All methods fit {@link BodyDecoder} as method references.
+ */
+public final class OwmJsonDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private OwmJsonDecoder() { }
+
+    // ── geo/1.0/direct, geo/1.0/reverse ───────────────────────────
+    public static List<GeoPlace> places(InputStream in) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            List<GeoPlace> places = new ArrayList<>();
+            p.nextToken();
+            readArray(p, (i, q) -> {
+                PlaceFields f = new PlaceFields();
+                readObject(q, (name, v) -> {
+                    switch (name) {
+                        case "name"    -> f.name    = v.getValueAsString();
+                        case "state"   -> f.state   = v.getValueAsString();
+                        case "country" -> f.country = v.getValueAsString();
+                        case "lat"     -> f.lat     = v.getValueAsDouble();
+                        case "lon"     -> f.lon     = v.getValueAsDouble();
+                        default        -> v.skipChildren();
+                    }
+                });
+                places.add(new GeoPlace(f.name, f.state, f.country, f.lat, f.lon));
+            });
+            return places;
+        }
+    }
+
+    // ── data/2.5/weather ──────────────────────────────────────────
+    public static CurrentWeather weather(InputStream in) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            WeatherFields f = new WeatherFields();
+            p.nextToken();
+            readObject(p, (name, v) -> {
+                switch (name) {
+                    case "main" -> readObject(v, (m, w) -> {
+                        switch (m) {
+                            case "temp"       -> f.temp      = w.getValueAsDouble();
+                            case "feels_like" -> f.feelsLike = w.getValueAsDouble();
+                            case "temp_min"   -> f.tempMin   = w.getValueAsDouble();
+                            case "temp_max"   -> f.tempMax   = w.getValueAsDouble();
+                            case "humidity"   -> f.humidity  = w.getValueAsDouble();
+                            case "pressure"   -> f.pressure  = w.getValueAsDouble();
+                            default           -> w.skipChildren();
+                        }
+                    });
+                    case "wind" -> readObject(v, (m, w) -> {
+                        switch (m) {
+                            case "speed" -> f.windSpeed = w.getValueAsDouble();
+                            case "deg"   -> f.windDeg   = w.getValueAsDouble();
+                            default      -> w.skipChildren();
+                        }
+                    });
+                    case "clouds" -> readObject(v, (m, w) -> {
+                        if (m.equals("all")) f.clouds = w.getValueAsDouble();
+                        else w.skipChildren();
+                    });
+                    case "sys" -> readObject(v, (m, w) -> {
+                        switch (m) {
+                            case "sunrise" -> f.sunrise = w.getValueAsLong();
+                            case "sunset"  -> f.sunset  = w.getValueAsLong();
+                            default        -> w.skipChildren();
+                        }
+                    });
+                    case "weather" -> readArray(v, (i, w) -> {
+                        if (i == 0) readConditions(w, f);
+                        else w.skipChildren();
+                    });
+                    case "visibility" -> f.visibility = v.getValueAsDouble();
+                    default           -> v.skipChildren();
+                }
+            });
+            return new CurrentWeather(f.temp, f.feelsLike, f.tempMin, f.tempMax,
+                    f.humidity, f.pressure, f.windSpeed, f.windDeg,
+                    f.visibility, f.clouds, f.sunrise, f.sunset,
+                    f.description, f.icon);
+        }
+    }
+
+    // ── data/2.5/air_pollution (+ /forecast, /history) ────────────
+    public static List<PollutionSample> pollution(InputStream in) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            List<PollutionSample> samples = new ArrayList<>();
+            p.nextToken();
+            readObject(p, (name, v) -> {
+                if (!name.equals("list")) { v.skipChildren(); return; }
+                readArray(v, (i, item) -> {
+                    PollutionFields f = new PollutionFields();
+                    readObject(item, (m, w) -> {
+                        switch (m) {
+                            case "dt"         -> f.dt = w.getValueAsLong();
+                            case "components" -> readObject(w, (c, x) -> {
+                                switch (c) {
+                                    case "pm2_5" -> f.pm25 = x.getValueAsDouble();
+                                    case "pm10"  -> f.pm10 = x.getValueAsDouble();
+                                    case "no2"   -> f.no2  = x.getValueAsDouble();
+                                    case "o3"    -> f.o3   = x.getValueAsDouble();
+                                    case "co"    -> f.co   = x.getValueAsDouble();
+                                    case "so2"   -> f.so2  = x.getValueAsDouble();
+                                    case "nh3"   -> f.nh3  = x.getValueAsDouble();
+                                    case "no"    -> f.no   = x.getValueAsDouble();
+                                    default      -> x.skipChildren();
+                                }
+                            });
+                            default -> w.skipChildren();
+                        }
+                    });
+                    samples.add(new PollutionSample(f.dt, f.pm25, f.pm10, f.no2, f.o3,
+                            f.co, f.so2, f.nh3, f.no));
+                });
+            });
+            return samples;
+        }
+    }
+
+    // ── data/2.5/forecast ─────────────────────────────────────────
+    public static List<ForecastSlot> forecast(InputStream in) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            List<ForecastSlot> slots = new ArrayList<>(40);
+            p.nextToken();
+            readObject(p, (name, v) -> {
+                if (!name.equals("list")) { v.skipChildren(); return; }
+                readArray(v, (i, item) -> {
+                    WeatherFields f = new WeatherFields();
+                    readObject(item, (m, w) -> {
+                        switch (m) {
+                            case "dt"     -> f.dt    = w.getValueAsLong();
+                            case "dt_txt" -> f.dtTxt = w.getValueAsString("");
+                            case "main"   -> readObject(w, (k, x) -> {
+                                switch (k) {
+                                    case "temp"     -> f.temp     = x.getValueAsDouble();
+                                    case "humidity" -> f.humidity = x.getValueAsDouble();
+                                    default         -> x.skipChildren();
+                                }
+                            });
+                            case "weather" -> readArray(w, (j, x) -> {
+                                if (j == 0) readConditions(x, f);
+                                else x.skipChildren();
+                            });
+                            default -> w.skipChildren();
+                        }
+                    });
+                    slots.add(new ForecastSlot(f.dt, f.dtTxt, f.temp, f.humidity, f.description, f.icon));
+                });
+            });
+            return slots;
+        }
+    }
+
+    // ── Parser helpers ────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface FieldHandler {
+        /** Called with the parser on the field's value; must consume the whole value. */
+        void field(String name, JsonParser p) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+        /** Called with the parser on the element's first token; must consume the whole element. */
+        void element(int index, JsonParser p) throws IOException;
+    }
+
+    private static void readObject(JsonParser p, FieldHandler handler) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) { p.skipChildren(); return; }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            handler.field(name, p);
+        }
+    }
+
+    private static void readArray(JsonParser p, ElementHandler handler) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) { p.skipChildren(); return; }
+        int i = 0;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            handler.element(i++, p);
+        }
+    }
+
+    private static void readConditions(JsonParser p, WeatherFields f) throws IOException {
+        readObject(p, (name, v) -> {
+            switch (name) {
+                case "description" -> f.description = v.getValueAsString("");
+                case "icon"        -> f.icon        = v.getValueAsString("");
+                default            -> v.skipChildren();
+            }
+        });
+    }
+
+    // Mutable scratch holders; the handlers are lambdas and cannot assign locals.
+    private static final class PlaceFields {
+        String name, state, country;
+        double lat, lon;
+    }
+
+    private static final class WeatherFields {
+        double temp, feelsLike, tempMin, tempMax, humidity, pressure;
+        double windSpeed, windDeg, visibility, clouds;
+        long sunrise, sunset;
+        String description = "", icon = "";
+        long dt;            // forecast slots only
+        String dtTxt = "";  // forecast slots only
+    }
+
+    private static final class PollutionFields {
+        long dt;
+        double pm25, pm10, no2, o3, co, so2, nh3, no;
+    }
+}
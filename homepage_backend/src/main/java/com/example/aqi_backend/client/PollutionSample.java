@@ -0,0 +1,6 @@
+package com.example.aqi_backend.client;
+
+/** One point of an air_pollution response (current, forecast or history); concentrations in µg/m³. */
+public record PollutionSample(long dt,
+                              double pm25, double pm10, double no2, double o3,
+                              double co, double so2, double nh3, double no) { }
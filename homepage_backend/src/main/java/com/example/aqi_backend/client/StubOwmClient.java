@@ -0,0 +1,137 @@
+package com.example.aqi_backend.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline OwmClient that fabricates plausible responses for every endpoint.
+ *
+ * Values are derived from the coordinates (or city name) and the hour, so the
+ * same request gives the same numbers. owm.stub.latency adds an artificial
+ * delay per call to mimic a real round trip during load tests.
+ */
+@Component
+@ConditionalOnProperty(name = "owm.client", havingValue = "stub")
+public class StubOwmClient implements OwmClient {
+
+    private static final DateTimeFormatter DT_TXT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private final Executor delayed;
+
+    public StubOwmClient(@Value("${owm.stub.latency:50ms}") Duration latency) {
+        this.delayed = CompletableFuture.delayedExecutor(latency.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(OwmEndpoint endpoint, Map<String, ?> params, BodyDecoder<T> decoder) {
+        return CompletableFuture.supplyAsync(() -> {
+            byte[] json = body(endpoint, params).getBytes(StandardCharsets.UTF_8);
+            try (InputStream in = new ByteArrayInputStream(json)) {
+                return decoder.decode(in);
+            } catch (IOException e) {
+                throw new OwmClientException(endpoint, "Stub decode failed", e);
+            }
+        }, delayed);
+    }
+
+    private String body(OwmEndpoint endpoint, Map<String, ?> params) {
+        long now = Instant.now().getEpochSecond();
+        long hour = now - now % 3600;
+        return switch (endpoint) {
+            case GEO_DIRECT -> {
+                String q = String.valueOf(params.get("q")).split(",")[0].trim();
+                int h = Math.floorMod(q.toLowerCase(Locale.ROOT).hashCode(), Integer.MAX_VALUE);
+                double lat = 8 + (h % 2400) / 100.0;          // 8..32 N
+                double lon = 70 + ((h / 2400) % 2200) / 100.0; // 70..92 E
+                yield "[{\"name\":\"" + capitalize(q) + "\",\"lat\":" + lat + ",\"lon\":" + lon
+                        + ",\"country\":\"IN\",\"state\":\"\"}]";
+            }
+            case GEO_REVERSE -> "[{\"name\":\"Stub " + cell(params) + "\",\"country\":\"IN\"}]";
+            case WEATHER -> weather(params, hour);
+            case AIR_POLLUTION -> "{\"list\":[" + pollutionItem(params, hour) + "]}";
+            case AIR_POLLUTION_FORECAST -> pollutionSeries(params, hour, hour + 96 * 3600L);
+            case AIR_POLLUTION_HISTORY -> {
+                long start = Long.parseLong(String.valueOf(params.get("start")));
+                long end   = Long.parseLong(String.valueOf(params.get("end")));
+                yield pollutionSeries(params, start - start % 3600 + 3600, end);
+            }
+            case FORECAST -> forecast(params, hour);
+        };
+    }
+
+    private String weather(Map<String, ?> params, long dt) {
+        double t = 24 + seed(params, dt) % 10;
+        return "{\"weather\":[{\"description\":\"scattered clouds\",\"icon\":\"03d\"}],"
+                + "\"main\":{\"temp\":" + t + ",\"feels_like\":" + (t + 1.5) + ",\"temp_min\":" + (t - 2)
+                + ",\"temp_max\":" + (t + 2) + ",\"pressure\":1009,\"humidity\":71},"
+                + "\"visibility\":6000,\"wind\":{\"speed\":3.1,\"deg\":240},\"clouds\":{\"all\":40},"
+                + "\"dt\":" + dt + ",\"sys\":{\"sunrise\":" + (dt - dt % 86400 + 3600)
+                + ",\"sunset\":" + (dt - dt % 86400 + 46800) + "}}";
+    }
+
+    private String pollutionSeries(Map<String, ?> params, long from, long to) {
+        StringBuilder sb = new StringBuilder("{\"list\":[");
+        boolean first = true;
+        for (long dt = from; dt <= to; dt += 3600) {
+            if (!first) sb.append(',');
+            sb.append(pollutionItem(params, dt));
+            first = false;
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String pollutionItem(Map<String, ?> params, long dt) {
+        long s = seed(params, dt);
+        double pm25 = 20 + s % 80;
+        return "{\"dt\":" + dt + ",\"main\":{\"aqi\":3},\"components\":{"
+                + "\"co\":" + (400 + s % 600) + ",\"no\":" + (s % 5) + ",\"no2\":" + (10 + s % 40)
+                + ",\"o3\":" + (30 + s % 60) + ",\"so2\":" + (4 + s % 12) + ",\"pm2_5\":" + pm25
+                + ",\"pm10\":" + (pm25 * 1.6) + ",\"nh3\":" + (2 + s % 8) + "}}";
+    }
+
+    private String forecast(Map<String, ?> params, long hour) {
+        long start = hour - hour % 10800 + 10800;
+        StringBuilder sb = new StringBuilder("{\"list\":[");
+        for (int i = 0; i < 40; i++) {
+            long dt = start + i * 10800L;
+            if (i > 0) sb.append(',');
+            sb.append("{\"dt\":").append(dt)
+              .append(",\"main\":{\"temp\":").append(22 + seed(params, dt) % 12)
+              .append(",\"humidity\":").append(55 + seed(params, dt) % 40)
+              .append("},\"weather\":[{\"description\":\"light rain\",\"icon\":\"10d\"}]")
+              .append(",\"dt_txt\":\"").append(DT_TXT.format(Instant.ofEpochSecond(dt))).append("\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static long seed(Map<String, ?> params, long dt) {
+        long h = cell(params).hashCode() * 31L + dt / 3600;
+        h ^= (h >>> 17);
+        h *= 0x9E3779B97F4A7C15L;
+        return Math.floorMod(h ^ (h >>> 29), 1000L);
+    }
+
+    private static String cell(Map<String, ?> params) {
+        return params.get("lat") + "," + params.get("lon");
+    }
+
+    private static String capitalize(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.aqi_backend.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Latency and outcome of every call that actually goes to OWM.
+ *
+ * aqi.upstream.requests{endpoint, outcome} is a timer with a percentile
+ * histogram, so p50/p99 per endpoint can be computed by the backend that
+ * scrapes it. Outcomes: success, client_error (4xx), rate_limited (429),
+ * server_error (5xx), timeout, error (transport or decoding).
+ * aqi.upstream.in.flight{endpoint} is the number of calls awaiting an answer.
+ *
+ * Time spent before the request is sent (circuit breaker, quota wait) is not
+ * included; see aqi.breaker.* and aqi.quota.*.
+ */
+@Component
+public class UpstreamMetrics {
+
+    private static final String[] OUTCOMES = {
+        "success", "client_error", "rate_limited", "server_error", "timeout", "error"
+    };
+
+    private final Map<OwmEndpoint, Timer[]> timers = new EnumMap<>(OwmEndpoint.class);
+    private final Map<OwmEndpoint, AtomicInteger> inFlight = new EnumMap<>(OwmEndpoint.class);
+
+    public UpstreamMetrics(MeterRegistry meterRegistry) {
+        for (OwmEndpoint endpoint : OwmEndpoint.values()) {
+            Timer[] t = new Timer[OUTCOMES.length];
+            for (int i = 0; i < OUTCOMES.length; i++) {
+                t[i] = Timer.builder("aqi.upstream.requests")
+                        .tag("endpoint", endpoint.shortName())
+                        .tag("outcome", OUTCOMES[i])
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(30))
+                        .register(meterRegistry);
+            }
+            timers.put(endpoint, t);
+
+            AtomicInteger n = new AtomicInteger();
+            inFlight.put(endpoint, n);
+            Gauge.builder("aqi.upstream.in.flight", n, AtomicInteger::get)
+                    .tag("endpoint", endpoint.shortName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Runs call, timing it from now until its future completes. */
+    public <T> CompletableFuture<T> record(OwmEndpoint endpoint, Supplier<CompletableFuture<T>> call) {
+        AtomicInteger n = inFlight.get(endpoint);
+        long start = System.nanoTime();
+        n.incrementAndGet();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            n.decrementAndGet();
+            timers.get(endpoint)[outcome(e)].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        return result.whenComplete((v, t) -> {
+            n.decrementAndGet();
+            timers.get(endpoint)[outcome(t)].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    // Index into OUTCOMES
+    static int outcome(Throwable t) {
+        if (t == null) return 0;
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof OwmClientException e && e.getStatus() > 0) {
+            if (e.getStatus() == 429) return 2;
+            return e.getStatus() >= 500 ? 3 : 1;
+        }
+        for (Throwable c = cause; c != null; c = c.getCause()) {
+            if (c instanceof HttpTimeoutException || c instanceof TimeoutException) return 4;
+        }
+        return 5;
+    }
+}
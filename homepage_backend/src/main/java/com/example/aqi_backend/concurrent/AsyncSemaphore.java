@@ -0,0 +1,78 @@
+package com.example.aqi_backend.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting semaphore whose acquire returns a future instead of blocking.
+ *
+ * A free permit completes the future at once. Otherwise the caller joins a
+ * FIFO queue and its future completes when release hands a permit over, or
+ * fails with TimeoutException after maxWait. No thread is parked while
+ * waiting, so the wait can sit inside a request's deadline.
+ *
+ * A waiter that times out or is cancelled leaves the queue; release skips
+ * it and hands the permit to the next one.
+ */
+public final class AsyncSemaphore {
+
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    private final int permits;
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+
+    public AsyncSemaphore(int permits) {
+        if (permits <= 0) throw new IllegalArgumentException("permits must be > 0");
+        this.permits   = permits;
+        this.available = permits;
+    }
+
+    public CompletableFuture<Void> acquire(Duration maxWait) {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (available > 0) {
+                available--;
+                return ACQUIRED;
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        waiter.orTimeout(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        waiter.whenComplete((v, t) -> {
+            if (t != null) remove(waiter);
+        });
+        return waiter;
+    }
+
+    /** Returns a permit, handing it straight to the longest waiting caller if there is one. */
+    public void release() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            // Completed outside the lock: the waiter's continuation runs on this thread
+            if (next.complete(null)) return;
+        }
+    }
+
+    /** Permits currently held. */
+    public synchronized int inUse() {
+        return permits - available;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    private synchronized void remove(CompletableFuture<Void> waiter) {
+        waiters.remove(waiter);
+    }
+}
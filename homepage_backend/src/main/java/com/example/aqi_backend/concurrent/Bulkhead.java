@@ -0,0 +1,126 @@
+package com.example.aqi_backend.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * One isolated compartment of work: its own thread pool and its own budget
+ * of concurrent upstream calls.
+ *
+ * The pool runs the compartment's fan-out tasks; extra tasks wait in a
+ * bounded queue and, once that is full, run on the submitting thread, or
+ * for a compartment that drops when full, are rejected with
+ * RejectedExecutionException and counted in aqi.bulkhead.rejected. The
+ * call budget caps how many OWM requests the compartment has open at once;
+ * a call waits up to maxWait for a slot, without holding a thread, and then
+ * fails with BulkheadFullException. Work in one bulkhead can therefore never use up
+ * the threads or connections another one needs.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private final AsyncSemaphore calls;
+    private final int maxCalls;
+    private final Duration maxWait;
+    private final Counter rejected;
+
+    public Bulkhead(MeterRegistry meterRegistry, String name, int threads, int queueCapacity,
+                    int maxCalls, Duration maxWait, boolean dropWhenFull) {
+        if (threads <= 0 || maxCalls <= 0) throw new IllegalArgumentException(name + ": threads and calls must be > 0");
+        this.name     = name;
+        this.maxCalls = maxCalls;
+        this.calls    = new AsyncSemaphore(maxCalls);
+        this.maxWait  = maxWait;
+
+        this.rejected = Counter.builder("aqi.bulkhead.rejected")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+
+        AtomicInteger seq = new AtomicInteger();
+        RejectedExecutionHandler whenFull = dropWhenFull
+                ? (r, executor) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException(name + " bulkhead is full");
+                }
+                : new ThreadPoolExecutor.CallerRunsPolicy();
+        this.pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "aqi-" + name + "-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                whenFull);
+        this.pool.allowCoreThreadTimeOut(true);
+
+        // executor.queued, executor.active, executor.pool.size, ... tagged name=<bulkhead>
+        new ExecutorServiceMetrics(pool, name, Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("aqi.bulkhead.calls.in.flight", this, Bulkhead::callsInFlight)
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("aqi.bulkhead.calls.waiting", calls, AsyncSemaphore::queued)
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void execute(Runnable task) {
+        pool.execute(task);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return pool.submit(task);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, pool);
+    }
+
+    /**
+     * Starts an upstream call once a call slot is free, holding the slot
+     * until the call's future completes. Returns at once; the wait for a
+     * slot is part of the returned future.
+     */
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        return calls.acquire(maxWait)
+                .exceptionally(t -> {
+                    rejected.increment();
+                    throw new BulkheadFullException(name, maxCalls);
+                })
+                .thenCompose(slot -> {
+                    CompletableFuture<T> result;
+                    try {
+                        result = call.get();
+                    } catch (RuntimeException e) {
+                        calls.release();
+                        throw e;
+                    }
+                    return result.whenComplete((v, t) -> calls.release());
+                });
+    }
+
+    public int callsInFlight() {
+        return calls.inUse();
+    }
+
+    public int queueDepth() {
+        return pool.getQueue().size();
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
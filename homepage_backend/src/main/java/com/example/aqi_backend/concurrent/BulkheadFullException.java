@@ -0,0 +1,16 @@
+package com.example.aqi_backend.concurrent;
+
+/** An upstream call was not started because its bulkhead had no free call slot in time. */
+public class BulkheadFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead, int maxCalls) {
+        super("Too many " + bulkhead + " requests to OWM in progress (limit " + maxCalls + ")");
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() { return bulkhead; }
+}
@@ -0,0 +1,87 @@
+package com.example.aqi_backend.concurrent;
+
+import com.example.aqi_backend.quota.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Named bulkheads, one per Workload: interactive, bulk, history, refresh
+ * and map_refresh. Each has its own fan-out pool (aqi.bulkhead.{name}.threads)
+ * and its own budget of concurrent OWM calls (aqi.bulkhead.{name}.calls).
+ * The refresh bulkhead drops work once its queue
+ * (aqi.bulkhead.refresh.queue-capacity) is full: nobody waits on a
+ * background revalidation, and the stale answer stays served.
+ *
+ * A burst of map refreshes or India city cards can fill its own queue and
+ * call budget but never takes threads or connections from the others, so
+ * a user's /api/aqi lookup does not wait behind background work. A call
+ * waits for a slot up to its workload's maxWait. The background budgets
+ * together stay below owm.http.max-per-route, so interactive calls always
+ * find a free connection to every endpoint.
+ */
+@Component
+public class FanOutExecutor {
+
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    public FanOutExecutor(MeterRegistry meterRegistry,
+                          @Value("${aqi.bulkhead.queue-capacity:10000}") int queueCapacity,
+                          @Value("${aqi.bulkhead.interactive.threads:4}") int interactiveThreads,
+                          @Value("${aqi.bulkhead.interactive.calls:32}") int interactiveCalls,
+                          @Value("${aqi.bulkhead.bulk.threads:4}") int bulkThreads,
+                          @Value("${aqi.bulkhead.bulk.calls:6}") int bulkCalls,
+                          @Value("${aqi.bulkhead.history.threads:2}") int historyThreads,
+                          @Value("${aqi.bulkhead.history.calls:2}") int historyCalls,
+                          @Value("${aqi.bulkhead.refresh.threads:2}") int refreshThreads,
+                          @Value("${aqi.bulkhead.refresh.calls:2}") int refreshCalls,
+                          @Value("${aqi.bulkhead.refresh.queue-capacity:100}") int refreshQueueCapacity,
+                          @Value("${aqi.bulkhead.map-refresh.threads:4}") int mapRefreshThreads,
+                          @Value("${aqi.bulkhead.map-refresh.calls:4}") int mapRefreshCalls) {
+        add(meterRegistry, Workload.INTERACTIVE, interactiveThreads, queueCapacity,        interactiveCalls, false);
+        add(meterRegistry, Workload.BULK,        bulkThreads,        queueCapacity,        bulkCalls,        false);
+        add(meterRegistry, Workload.HISTORY,     historyThreads,     queueCapacity,        historyCalls,     false);
+        add(meterRegistry, Workload.REFRESH,     refreshThreads,     refreshQueueCapacity, refreshCalls,     true);
+        add(meterRegistry, Workload.MAP_REFRESH, mapRefreshThreads,  queueCapacity,        mapRefreshCalls,  false);
+    }
+
+    private void add(MeterRegistry meterRegistry, Workload workload, int threads, int queueCapacity, int calls,
+                     boolean dropWhenFull) {
+        String name = workload.name().toLowerCase();
+        bulkheads.put(workload, new Bulkhead(meterRegistry, name, threads, queueCapacity, calls, workload.maxWait(),
+                dropWhenFull));
+    }
+
+    public Bulkhead bulkhead(Workload workload) {
+        return bulkheads.get(workload);
+    }
+
+    public void execute(Workload workload, Runnable task) {
+        bulkheads.get(workload).execute(task);
+    }
+
+    public <T> Future<T> submit(Workload workload, Callable<T> task) {
+        return bulkheads.get(workload).submit(task);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Workload workload, Supplier<T> task) {
+        return bulkheads.get(workload).supplyAsync(task);
+    }
+
+    public int queueDepth() {
+        int depth = 0;
+        for (Bulkhead b : bulkheads.values()) depth += b.queueDepth();
+        return depth;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Bulkhead b : bulkheads.values()) b.shutdown();
+    }
+}
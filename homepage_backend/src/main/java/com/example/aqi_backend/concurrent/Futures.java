@@ -0,0 +1,65 @@
+package com.example.aqi_backend.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Blocking joins over CompletableFutures for request threads that fan out
+ * several upstream calls and need all of them.
+ *
+ * Failures are rethrown as the original exception, not wrapped in
+ * ExecutionException/CompletionException, so existing catch blocks and
+ * error messages keep working.
+ */
+public final class Futures {
+
+    private Futures() { }
+
+    /**
+     * Waits until every future has completed. The first one to fail cancels
+     * the others, and its exception is thrown straight away without waiting
+     * for slower siblings.
+     */
+    public static void awaitAll(CompletableFuture<?>... futures) throws Exception {
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<?> f : futures) {
+            f.whenComplete((v, t) -> {
+                if (t != null) firstFailure.completeExceptionally(t);
+            });
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures), firstFailure).get();
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            Throwable cause = firstFailure.isCompletedExceptionally()
+                    ? firstFailure.handle((v, t) -> t).join()
+                    : e.getCause();
+            throw rethrowable(cause);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /** Waits for one future and returns its value, rethrowing its own failure. */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        awaitAll(future);
+        return future.join();
+    }
+
+    private static void cancelAll(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> f : futures) f.cancel(true);
+    }
+
+    private static Exception rethrowable(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof Exception e) return e;
+        if (t instanceof Error err) throw err;
+        return new CancellationException(String.valueOf(t));
+    }
+}
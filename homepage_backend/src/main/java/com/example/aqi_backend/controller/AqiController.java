@@ -1,40 +1,143 @@
 package com.example.aqi_backend.controller;
 
+import com.example.aqi_backend.cache.Cached;
+import com.example.aqi_backend.model.BatchQuery;
+import com.example.aqi_backend.resilience.UpstreamFailures;
 import com.example.aqi_backend.service.AqiService;
+import com.example.aqi_backend.service.BatchAqiService;
+import com.example.aqi_backend.service.CachedAqiService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class AqiController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final AqiService aqiService;
+    private final CachedAqiService cachedService;
+    private final BatchAqiService batchService;
+    private final ObjectMapper objectMapper;
+
+    // /api/cities/india body, encoded once per version of the list
+    private final AtomicReference<EncodedJson> indiaCities = new AtomicReference<>();
+
+    public AqiController(AqiService aqiService, CachedAqiService cachedService,
+                         BatchAqiService batchService, ObjectMapper objectMapper) {
+        this.aqiService    = aqiService;
+        this.cachedService = cachedService;
+        this.batchService  = batchService;
+        this.objectMapper  = objectMapper;
+    }
+
+    // Body is the cached value as before; Age says how old it is and
+    // X-Stale: true marks one served while a refresh runs in the background.
+    // ETag/Last-Modified follow the value's last change, so a client polling
+    // with If-None-Match gets 304 until the readings actually change.
+    private ResponseEntity<?> cachedResponse(WebRequest request, Cached<?> cached) {
+        return cachedResponse(request, cached, null);
+    }
+
+    // With last set, the body is kept there and re-encoded only when the value changes
+    private ResponseEntity<?> cachedResponse(WebRequest request, Cached<?> cached, AtomicReference<EncodedJson> last) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        if (cached.stale()) headers.set("X-Stale", "true");
+        String version = ConditionalResponses.version(cached.modifiedAt(), cached.value());
+        return ConditionalResponses.respond(request, version, cached.modifiedAt(), headers,
+                () -> last != null
+                        ? EncodedJson.reuse(last, objectMapper, cached.value(), version)
+                        : EncodedJson.of(objectMapper, cached.value(), version));
+    }
 
-    public AqiController(AqiService aqiService) {
-        this.aqiService = aqiService;
+    // Upstream failures keep their 400 answer but count as failures for the concurrency limiter
+    private static ResponseEntity<?> error(Exception e) {
+        UpstreamFailures.record(e);
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 
     // GET /api/aqi?city=Kochi
     @GetMapping("/aqi")
-    public ResponseEntity<?> getAqi(@RequestParam String city) {
+    public ResponseEntity<?> getAqi(@RequestParam String city, WebRequest request) {
         try {
-            return ResponseEntity.ok(aqiService.getAqiByCity(city));
+            return cachedResponse(request, cachedService.getAqiByCity(city));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return error(e);
         }
     }
 
     // GET /api/aqi/locate?lat=9.93&lon=76.26
     @GetMapping("/aqi/locate")
     public ResponseEntity<?> getAqiByLocation(@RequestParam double lat,
-                                              @RequestParam double lon) {
+                                              @RequestParam double lon,
+                                              WebRequest request) {
+        try {
+            return cachedResponse(request, cachedService.getAqiByCoords(lat, lon));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    // POST /api/aqi/batch   body: [{"city":"Kochi"}, {"lat":9.93,"lon":76.26}, ...]
+    // Returns one result per item, in request order: {index, query, data | error}
+    @PostMapping("/aqi/batch")
+    public ResponseEntity<?> getAqiBatch(@RequestBody List<BatchQuery> queries) {
+        try {
+            return ResponseEntity.ok(batchService.getBatch(queries));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    // POST /api/aqi/batch   with Accept: application/x-ndjson
+    // Same results, written one JSON object per line as they complete
+    @PostMapping(value = "/aqi/batch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAqiBatch(@RequestBody List<BatchQuery> queries) {
         try {
-            return ResponseEntity.ok(aqiService.getAqiByCoords(lat, lon));
+            batchService.validate(queries);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            byte[] error = ndjsonLine(Map.of("error", e.getMessage()));
+            return ResponseEntity.badRequest().contentType(NDJSON).body(out -> out.write(error));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                batchService.run(queries, result -> {
+                    try {
+                        out.write(ndjsonLine(result));
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client went away
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private byte[] ndjsonLine(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] line = Arrays.copyOf(json, json.length + 1);
+            line[json.length] = '\n';
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -47,7 +150,7 @@ public class AqiController {
         try {
             return ResponseEntity.ok(aqiService.getAqiHistory(lat, lon));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return error(e);
         }
     }
 
@@ -57,38 +160,62 @@ public class AqiController {
         try {
             return ResponseEntity.ok(aqiService.searchCities(q));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return error(e);
         }
     }
 
     // GET /api/forecast?city=Kochi
     @GetMapping("/forecast")
-    public ResponseEntity<?> getForecast(@RequestParam String city) {
+    public ResponseEntity<?> getForecast(@RequestParam String city, WebRequest request) {
         try {
-            return ResponseEntity.ok(aqiService.getForecast(city));
+            return cachedResponse(request, cachedService.getForecast(city));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return error(e);
         }
     }
 
     // GET /api/forecast/locate?lat=9.93&lon=76.26
     @GetMapping("/forecast/locate")
     public ResponseEntity<?> getForecastByLocation(@RequestParam double lat,
-                                                   @RequestParam double lon) {
+                                                   @RequestParam double lon,
+                                                   WebRequest request) {
+        try {
+            return cachedResponse(request, cachedService.getForecastByCoords(lat, lon));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    // GET /api/dashboard?city=Kochi
+    // Current AQI + forecast + pollutants in one response
+    @GetMapping("/dashboard")
+    public ResponseEntity<?> getDashboard(@RequestParam String city, WebRequest request) {
+        try {
+            return cachedResponse(request, cachedService.getDashboard(city));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    // GET /api/dashboard/locate?lat=9.93&lon=76.26
+    @GetMapping("/dashboard/locate")
+    public ResponseEntity<?> getDashboardByLocation(@RequestParam double lat,
+                                                    @RequestParam double lon,
+                                                    WebRequest request) {
         try {
-            return ResponseEntity.ok(aqiService.getForecastByCoords(lat, lon));
+            return cachedResponse(request, cachedService.getDashboardByCoords(lat, lon));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return error(e);
         }
     }
 
     // GET /api/cities/india
     @GetMapping("/cities/india")
-    public ResponseEntity<?> getIndiaCities() {
+    public ResponseEntity<?> getIndiaCities(WebRequest request) {
         try {
-            return ResponseEntity.ok(aqiService.getIndiaCities());
+            return cachedResponse(request, cachedService.getIndiaCities(), indiaCities);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return error(e);
         }
     }
 }
@@ -0,0 +1,73 @@
+package com.example.aqi_backend.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for JSON bodies whose data has a version.
+ *
+ * The ETag is strong and derived from the version, not from hashing the
+ * body, so a request that already has the current version is answered 304
+ * before anything is serialized. Each content coding has its own ETag.
+ *
+ * Tomcat does not compress responses with a strong ETag, so gzip is applied
+ * here when the client accepts it. Cache-Control: no-cache makes browsers
+ * revalidate on every load instead of guessing a freshness lifetime.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() { }
+
+    /**
+     * 304 when the request's If-None-Match / If-Modified-Since matches,
+     * otherwise 200 with the body from encoded. headers are sent on both.
+     */
+    static ResponseEntity<byte[]> respond(WebRequest request, String version, Instant modifiedAt,
+                                          HttpHeaders headers, Supplier<EncodedJson> encoded) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        HttpHeaders out = new HttpHeaders();
+        out.addAll(headers);
+        out.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        out.setCacheControl(CacheControl.noCache());
+
+        // Sets ETag and Last-Modified on the response either way
+        if (request.checkNotModified(etag(version, gzip), modifiedAt.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(out).build();
+        }
+        EncodedJson body = encoded.get();
+        out.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) out.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return ResponseEntity.ok().headers(out).body(gzip ? body.gzip() : body.json());
+    }
+
+    static String etag(String version, boolean gzip) {
+        return "\"" + version + (gzip ? "-gz" : "") + "\"";
+    }
+
+    /** Version of a value that changed at modifiedAt. */
+    static String version(Instant modifiedAt, Object value) {
+        return Long.toHexString(modifiedAt.toEpochMilli()) + "-" + Integer.toHexString(value.hashCode());
+    }
+
+    // Accept-Encoding: gzip, deflate, br  /  gzip;q=0  /  *
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] p = part.trim().split(";");
+            String coding = p[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+            if (p.length > 1 && p[1].trim().replace(" ", "").matches("q=0(\\.0*)?")) return false;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.aqi_backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A value serialized to JSON once, tagged with the version of the data it
+ * came from. The gzip encoding is made on first use and kept, so a body
+ * shared by many requests is compressed once.
+ *
+ * Snapshot endpoints keep their last body in an AtomicReference and go
+ * through reuse(): it is rebuilt, with both encodings, only when the
+ * version changes, and every other request writes the stored bytes.
+ */
+final class EncodedJson {
+
+    private final String version;
+    private final byte[] json;
+    private volatile byte[] gzip;
+
+    private EncodedJson(String version, byte[] json) {
+        this.version = version;
+        this.json    = json;
+    }
+
+    static EncodedJson of(ObjectMapper objectMapper, Object value, String version) {
+        try {
+            return new EncodedJson(version, objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** last's body if it is for version, otherwise a newly encoded one, which replaces it. */
+    static EncodedJson reuse(AtomicReference<EncodedJson> last, ObjectMapper objectMapper,
+                             Object value, String version) {
+        EncodedJson current = last.get();
+        if (current != null && current.version.equals(version)) return current;
+        EncodedJson next = of(objectMapper, value, version);
+        next.gzip();
+        last.set(next);
+        return next;
+    }
+
+    String version() {
+        return version;
+    }
+
+    byte[] json() {
+        return json;
+    }
+
+    byte[] gzip() {
+        byte[] g = gzip;
+        if (g == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+                zip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            gzip = g = out.toByteArray();
+        }
+        return g;
+    }
+}
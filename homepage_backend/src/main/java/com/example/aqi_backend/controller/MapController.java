@@ -1,128 +1,199 @@
 package com.example.aqi_backend.controller;
 
-import com.example.aqi_backend.service.AqiService;
+import com.example.aqi_backend.model.MapCity;
+import com.example.aqi_backend.model.MapSnapshot;
+import com.example.aqi_backend.service.MapSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.*;
-import java.util.concurrent.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class MapController {
 
-    private final AqiService aqiService;
+    private final MapSnapshotService mapSnapshotService;
+    private final ObjectMapper objectMapper;
+    private final Duration streamTimeout;
+    private final int streamMaxPending;
+    private final AtomicInteger streamSeq = new AtomicInteger();
 
-    public MapController(AqiService aqiService) {
-        this.aqiService = aqiService;
+    // Shared by every stream; each stream has at most one drain task queued or running
+    private final ThreadPoolExecutor senders;
+
+    // Body of the latest snapshot, encoded when it is published
+    private final AtomicReference<EncodedJson> encoded = new AtomicReference<>();
+
+    public MapController(MapSnapshotService mapSnapshotService,
+                         ObjectMapper objectMapper,
+                         @Value("${aqi.map.stream.timeout:30m}") Duration streamTimeout,
+                         @Value("${aqi.map.stream.max-pending:500}") int streamMaxPending,
+                         @Value("${aqi.map.stream.senders:4}") int streamSenders) {
+        this.mapSnapshotService = mapSnapshotService;
+        this.objectMapper       = objectMapper;
+        this.streamTimeout      = streamTimeout;
+        this.streamMaxPending   = streamMaxPending;
+        this.senders = new ThreadPoolExecutor(
+                streamSenders, streamSenders, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "aqi-map-stream-" + streamSeq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.senders.allowCoreThreadTimeOut(true);
+
+        // Serialize and gzip each snapshot once, as it is published, instead of per request
+        mapSnapshotService.subscribe(new MapSnapshotService.Listener() {
+            @Override
+            public void city(MapCity city) { }
+
+            @Override
+            public void refreshed(MapSnapshot snapshot) {
+                EncodedJson.reuse(encoded, objectMapper, snapshot.cities(), version(snapshot));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
     }
 
-    private static final Object[][] CITIES = {
-        // North India
-        {28.6139, 77.2090, "Delhi"},
-        {28.4595, 77.0266, "Gurugram"},
-        {28.7041, 77.1025, "Delhi North"},
-        {26.8467, 80.9462, "Lucknow"},
-        {25.3176, 82.9739, "Varanasi"},
-        {26.9124, 75.7873, "Jaipur"},
-        {30.7333, 76.7794, "Chandigarh"},
-        {27.1767, 78.0081, "Agra"},
-        {24.5854, 73.7125, "Udaipur"},
-        {27.8974, 78.0880, "Aligarh"},
-        {26.4499, 80.3319, "Kanpur"},
-        {29.9457, 78.1642, "Haridwar"},
-        {30.3165, 78.0322, "Dehradun"},
-        {31.1048, 77.1734, "Shimla"},
-        {32.7266, 74.8570, "Jammu"},
-        {28.0229, 73.3119, "Bikaner"},
-        {25.1478, 75.8480, "Kota"},
-        {29.3909, 76.9635, "Panipat"},
-        // West India
-        {19.0760, 72.8777, "Mumbai"},
-        {23.0225, 72.5714, "Ahmedabad"},
-        {18.5204, 73.8567, "Pune"},
-        {21.1458, 79.0882, "Nagpur"},
-        {21.1702, 72.8311, "Surat"},
-        {22.3072, 73.1812, "Vadodara"},
-        {20.0059, 73.7797, "Nashik"},
-        {19.9975, 72.9189, "Bhiwandi"},
-        {22.9734, 78.6569, "Bhopal"},
-        {22.7196, 75.8577, "Indore"},
-        {21.7051, 72.9959, "Bhavnagar"},
-        {23.2599, 77.4126, "Bhopal East"},
-        // East India
-        {22.5726, 88.3639, "Kolkata"},
-        {20.2961, 85.8245, "Bhubaneswar"},
-        {23.3441, 85.3096, "Ranchi"},
-        {25.5941, 85.1376, "Patna"},
-        {26.1445, 91.7362, "Guwahati"},
-        {22.8046, 86.2029, "Jamshedpur"},
-        {23.6693, 86.1511, "Dhanbad"},
-        {21.2514, 81.6296, "Raipur"},
-        // South India
-        {13.0827, 80.2707, "Chennai"},
-        {12.9716, 77.5946, "Bengaluru"},
-        {17.3850, 78.4867, "Hyderabad"},
-        {11.0168, 76.9558, "Coimbatore"},
-        {9.9252,  78.1198, "Madurai"},
-        {10.7905, 78.7047, "Tiruchirappalli"},
-        {13.6288, 79.4192, "Tirupati"},
-        {16.3067, 80.4365, "Vijayawada"},
-        {17.6868, 83.2185, "Visakhapatnam"},
-        {15.3173, 75.7139, "Hubli"},
-        {12.2958, 76.6394, "Mysuru"},
-        {11.6643, 78.1460, "Salem"},
-        // Kerala
-        {9.9312,  76.2673, "Kochi"},
-        {8.5241,  76.9366, "Thiruvananthapuram"},
-        {11.2588, 75.7804, "Kozhikode"},
-        {8.8932,  76.6141, "Kollam"},
-        {10.5276, 76.2144, "Thrissur"},
-        {11.8745, 75.3704, "Kannur"},
-        {9.5916,  76.5222, "Kottayam"},
-        {10.0004, 76.3637, "Aluva"},
-        {9.1858,  76.5164, "Pathanamthitta"},
-        {11.5854, 76.0845, "Malappuram"},
-    };
+    // From the markers, not the refresh time: a refresh that changes nothing keeps the ETag
+    private static String version(MapSnapshot snapshot) {
+        return ConditionalResponses.version(snapshot.modifiedAt(), snapshot.cities());
+    }
 
+    // GET /api/aqi/map
+    // Served from the in-memory snapshot. Body stays a plain array of cities
+    // (each with updatedAt/stale); snapshot timing goes in headers. The
+    // markers are the version: ETag from their content, Last-Modified from
+    // when they last changed, 304 on a match.
     @GetMapping("/aqi/map")
-    public ResponseEntity<?> getMapData() {
-        List<Map<String, Object>> cityData = new CopyOnWriteArrayList<>();
-        ExecutorService executor = Executors.newFixedThreadPool(8);
-        List<Future<?>> futures = new ArrayList<>();
-
-        for (Object[] cityInfo : CITIES) {
-            futures.add(executor.submit(() -> {
-                try {
-                    double lat  = (double) cityInfo[0];
-                    double lon  = (double) cityInfo[1];
-                    String name = (String) cityInfo[2];
-
-                    Map<String, Object> data = aqiService.getAqiByCoords(lat, lon);
-
-                    Map<String, Object> city = new HashMap<>();
-                    city.put("name", name);
-                    city.put("lat",  lat);
-                    city.put("lon",  lon);
-                    city.put("aqi",  data.get("aqi"));
-                    city.put("pm25", data.get("pm25"));
-                    city.put("pm10", data.get("pm10"));
-                    city.put("temp", data.get("temperature"));
-                    cityData.add(city);
-                    System.out.println("✓ " + name + " AQI=" + data.get("aqi"));
-                } catch (Exception e) {
-                    System.out.println("✗ " + cityInfo[2] + ": " + e.getMessage());
-                }
-            }));
+    public ResponseEntity<?> getMapData(WebRequest request) {
+        MapSnapshot snapshot = mapSnapshotService.current(Duration.ofSeconds(20));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Snapshot-Refreshed-At", snapshot.refreshedAt().toString());
+        headers.set("X-Snapshot-Age", String.valueOf(snapshot.ageSeconds()));
+        String version = version(snapshot);
+        return ConditionalResponses.respond(request, version, snapshot.modifiedAt(), headers,
+                () -> EncodedJson.reuse(encoded, objectMapper, snapshot.cities(), version));
+    }
+
+    // GET /api/aqi/map/stream   (text/event-stream)
+    // "city" event per marker: every known city right away, then each one again
+    // as soon as a refresh fetches it. "refreshed" event when a refresh is
+    // published. The stream ends after aqi.map.stream.timeout; EventSource
+    // reconnects and gets the full replay. Events are queued per stream and
+    // written by a shared pool of aqi.map.stream.senders threads, so a slow
+    // client never holds up the map refresh; one that falls
+    // aqi.map.stream.max-pending events behind is disconnected.
+    @GetMapping(value = "/aqi/map/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMapData() {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        EventStream stream = new EventStream(emitter, senders, streamMaxPending);
+        // Have the unsubscribe handle before the replay, so a stream that fails during it is removed
+        stream.unsubscribe = mapSnapshotService.subscribe(stream);
+        emitter.onCompletion(stream::close);
+        emitter.onTimeout(stream::close);
+        emitter.onError(e -> stream.close());
+        mapSnapshotService.replay(stream);
+        return emitter;
+    }
+
+    // Queues map updates for one SSE client and drains them, in order, on the shared senders
+    private static final class EventStream implements MapSnapshotService.Listener {
+
+        private final SseEmitter emitter;
+        private final ThreadPoolExecutor senders;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile Runnable unsubscribe = () -> { };
+
+        EventStream(SseEmitter emitter, ThreadPoolExecutor senders, int maxPending) {
+            this.emitter = emitter;
+            this.senders = senders;
+            this.pending = new ArrayBlockingQueue<>(maxPending);
+        }
+
+        @Override
+        public void city(MapCity city) {
+            enqueue(SseEmitter.event().name("city").data(city));
+        }
+
+        @Override
+        public void refreshed(MapSnapshot snapshot) {
+            enqueue(SseEmitter.event().name("refreshed").data(Map.of(
+                    "refreshedAt", snapshot.refreshedAt().toString(),
+                    "cities", snapshot.cities().size())));
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) return;
+            if (!pending.offer(event)) {
+                // Too far behind: drop the client, EventSource reconnects and gets a replay
+                close();
+                emitter.complete();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                draining.set(false);
+                close();
+            }
         }
 
-        for (Future<?> f : futures) {
-            try { f.get(20, TimeUnit.SECONDS); } catch (Exception ignored) {}
+        private void drain() {
+            SseEmitter.SseEventBuilder event;
+            while (!closed && (event = pending.poll()) != null) {
+                send(event);
+            }
+            draining.set(false);
+            // An event queued after the last poll but before the flag was cleared
+            if (!closed && !pending.isEmpty()) schedule();
         }
-        executor.shutdown();
 
-        System.out.println("Map loaded: " + cityData.size() + "/" + CITIES.length + " cities");
-        return ResponseEntity.ok(cityData);
+        private void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the stream already ended
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+
+        void close() {
+            closed = true;
+            unsubscribe.run();
+            pending.clear();
+        }
     }
 }
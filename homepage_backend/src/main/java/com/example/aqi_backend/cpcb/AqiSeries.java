@@ -0,0 +1,110 @@
+package com.example.aqi_backend.cpcb;
+
+import java.util.Arrays;
+
+/**
+ * AQI values on a time axis, held as parallel primitive arrays sorted by
+ * epoch second.
+ *
+ * Looking up a time between two points interpolates linearly; before the
+ * first or after the last point the nearest end is used. An empty series
+ * answers 0 everywhere. alignTo() walks a sorted list of query times with a
+ * single forward pointer, so aligning m forecast slots against n pollution
+ * points costs O(n + m) with no boxing.
+ */
+public final class AqiSeries {
+
+    public static final AqiSeries EMPTY = new AqiSeries(new long[0], new int[0]);
+
+    private final long[] times;
+    private final int[] values;
+
+    private AqiSeries(long[] times, int[] values) {
+        this.times  = times;
+        this.values = values;
+    }
+
+    /**
+     * Builds a series from parallel arrays, sorting by time if needed. When a
+     * timestamp repeats, the value that comes later in the input wins.
+     */
+    public static AqiSeries of(long[] times, int[] values) {
+        if (times.length != values.length) {
+            throw new IllegalArgumentException("times and values differ in length");
+        }
+        int n = times.length;
+        boolean ascending = true;
+        for (int i = 1; i < n && ascending; i++) ascending = times[i - 1] < times[i];
+        if (ascending) return new AqiSeries(times.clone(), values.clone());
+
+        // Stable sort by time via an index permutation, then keep the last of each run
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(times[a], times[b]));
+
+        long[] t = new long[n];
+        int[] v = new int[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int src = order[i];
+            if (size > 0 && t[size - 1] == times[src]) {
+                v[size - 1] = values[src];
+            } else {
+                t[size] = times[src];
+                v[size] = values[src];
+                size++;
+            }
+        }
+        return new AqiSeries(Arrays.copyOf(t, size), Arrays.copyOf(v, size));
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    /** AQI at one instant. */
+    public int at(long time) {
+        if (times.length == 0) return 0;
+        return valueAt(time, lowerBound(time));
+    }
+
+    /**
+     * AQI at each of the given instants, written to out. Times in ascending
+     * order take the linear merge path; a step backwards costs one binary search.
+     */
+    public void alignTo(long[] queryTimes, int[] out) {
+        if (out.length < queryTimes.length) throw new IllegalArgumentException("out is too short");
+        if (times.length == 0) {
+            Arrays.fill(out, 0, queryTimes.length, 0);
+            return;
+        }
+        int j = 0;
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < queryTimes.length; i++) {
+            long t = queryTimes[i];
+            if (t < previous) j = lowerBound(t);
+            else while (j < times.length && times[j] < t) j++;
+            out[i] = valueAt(t, j);
+            previous = t;
+        }
+    }
+
+    // j is the first index with times[j] >= t
+    private int valueAt(long t, int j) {
+        if (j == times.length) return values[j - 1];
+        if (j == 0 || times[j] == t) return values[j];
+        long t0 = times[j - 1], t1 = times[j];
+        int v0 = values[j - 1], v1 = values[j];
+        return (int) Math.round(v0 + (double) (v1 - v0) * (t - t0) / (t1 - t0));
+    }
+
+    private int lowerBound(long t) {
+        int lo = 0, hi = times.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < t) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.aqi_backend.cpcb;
+
+import java.util.Arrays;
+
+/**
+ * CPCB (India) AQI from raw OWM concentrations (µg/m³; CO is converted to mg/m³).
+ *
+ * Breakpoint tables are static primitive arrays laid out as six segments per
+ * pollutant. A sub-index is found without a table walk: every segment's line
+ * is evaluated and the right one is picked by a chain of compare-and-select,
+ * which the JIT turns into conditional moves instead of branches. The batch
+ * methods run that chain over plain double[] columns, one pollutant at a
+ * time, so the inner loop has no allocation, no calls and no data-dependent
+ * branches. Concentrations of 0 or below count as "not reported" and are
+ * left out of the overall AQI, as before.
+ */
+public final class CpcbAqi {
+
+    private static final int SEGMENTS = 6;
+    private static final int CHUNK = 1024;
+
+    /** Above the last breakpoint the index is capped here. */
+    public static final double MAX_INDEX = 500;
+
+    // Per pollutant: {bpLo, bpHi, indexLo, indexHi} for each segment, in Pollutant order.
+    private static final double[][][] TABLES = {
+            {{0,30,0,50},{30,60,51,100},{60,90,101,200},
+             {90,120,201,300},{120,250,301,400},{250,500,401,500}},      // PM25
+            {{0,50,0,50},{50,100,51,100},{100,250,101,200},
+             {250,350,201,300},{350,430,301,400},{430,600,401,500}},     // PM10
+            {{0,40,0,50},{40,80,51,100},{80,180,101,200},
+             {180,280,201,300},{280,400,301,400},{400,800,401,500}},     // NO2
+            {{0,50,0,50},{50,100,51,100},{100,168,101,200},
+             {168,208,201,300},{208,748,301,400},{748,1000,401,500}},    // O3
+            {{0,1.0,0,50},{1.0,2.0,51,100},{2.0,10,101,200},
+             {10,17,201,300},{17,34,301,400},{34,50,401,500}},           // CO (mg/m³)
+            {{0,40,0,50},{40,80,51,100},{80,380,101,200},
+             {380,800,201,300},{800,1600,301,400},{1600,2100,401,500}},  // SO2
+    };
+
+    // OWM reports CO in µg/m³; its CPCB table is in mg/m³.
+    private static final double[] UNIT_DIVISOR = {1, 1, 1, 1, 1000.0, 1};
+
+    // Flattened [pollutant * SEGMENTS + segment]
+    private static final double[] BP_LO    = new double[TABLES.length * SEGMENTS];
+    private static final double[] BP_HI    = new double[TABLES.length * SEGMENTS];
+    private static final double[] INDEX_LO = new double[TABLES.length * SEGMENTS];
+    private static final double[] SLOPE    = new double[TABLES.length * SEGMENTS];
+
+    static {
+        for (int p = 0; p < TABLES.length; p++) {
+            for (int s = 0; s < SEGMENTS; s++) {
+                double[] row = TABLES[p][s];
+                int i = p * SEGMENTS + s;
+                BP_LO[i]    = row[0];
+                BP_HI[i]    = row[1];
+                INDEX_LO[i] = row[2];
+                SLOPE[i]    = (row[3] - row[2]) / (row[1] - row[0]);
+            }
+        }
+    }
+
+    private CpcbAqi() { }
+
+    // ── Scalar ────────────────────────────────────────────────────
+
+    /** Sub-index for one raw concentration, or 0 if cp is not positive. */
+    public static double subIndex(Pollutant pollutant, double cp) {
+        int p = pollutant.ordinal();
+        int b = p * SEGMENTS;
+        return cp > 0 ? select(cp / UNIT_DIVISOR[p],
+                BP_LO[b],     BP_LO[b + 1], BP_LO[b + 2], BP_LO[b + 3], BP_LO[b + 4], BP_LO[b + 5],
+                BP_HI[b],     BP_HI[b + 1], BP_HI[b + 2], BP_HI[b + 3], BP_HI[b + 4], BP_HI[b + 5],
+                INDEX_LO[b],  INDEX_LO[b + 1], INDEX_LO[b + 2], INDEX_LO[b + 3], INDEX_LO[b + 4], INDEX_LO[b + 5],
+                SLOPE[b],     SLOPE[b + 1], SLOPE[b + 2], SLOPE[b + 3], SLOPE[b + 4], SLOPE[b + 5])
+                : 0;
+    }
+
+    /** Overall AQI: the highest reported sub-index, rounded; 0 if nothing is reported. */
+    public static int aqi(double pm25, double pm10, double no2, double o3, double co, double so2) {
+        double max = subIndex(Pollutant.PM25, pm25);
+        max = Math.max(max, subIndex(Pollutant.PM10, pm10));
+        max = Math.max(max, subIndex(Pollutant.NO2,  no2));
+        max = Math.max(max, subIndex(Pollutant.O3,   o3));
+        max = Math.max(max, subIndex(Pollutant.CO,   co));
+        max = Math.max(max, subIndex(Pollutant.SO2,  so2));
+        return (int) Math.round(max);
+    }
+
+    /**
+     * Sub-index of every pollutant of one reading: cp and out are indexed by
+     * Pollutant.ordinal(). Unreported (non-positive) concentrations give 0.
+     */
+    public static void subIndices(double[] cp, double[] out) {
+        Pollutant[] pollutants = Pollutant.values();
+        checkLength(cp, pollutants.length);
+        checkLength(out, pollutants.length);
+        for (Pollutant p : pollutants) {
+            out[p.ordinal()] = subIndex(p, cp[p.ordinal()]);
+        }
+    }
+
+    /** Overall AQI from the sub-indices filled in by subIndices(double[], double[]). */
+    public static int aqiOf(double[] subIndices) {
+        double max = 0;
+        for (double v : subIndices) max = Math.max(max, v);
+        return (int) Math.round(max);
+    }
+
+    // ── Batch ─────────────────────────────────────────────────────
+
+    /** out[i] = subIndex(pollutant, cp[i]) for i in [0, n). */
+    public static void subIndices(Pollutant pollutant, double[] cp, double[] out, int n) {
+        checkLength(cp, n);
+        checkLength(out, n);
+        int p = pollutant.ordinal();
+        int b = p * SEGMENTS;
+        double div = UNIT_DIVISOR[p];
+        double l0 = BP_LO[b], l1 = BP_LO[b + 1], l2 = BP_LO[b + 2], l3 = BP_LO[b + 3], l4 = BP_LO[b + 4], l5 = BP_LO[b + 5];
+        double h0 = BP_HI[b], h1 = BP_HI[b + 1], h2 = BP_HI[b + 2], h3 = BP_HI[b + 3], h4 = BP_HI[b + 4], h5 = BP_HI[b + 5];
+        double i0 = INDEX_LO[b], i1 = INDEX_LO[b + 1], i2 = INDEX_LO[b + 2], i3 = INDEX_LO[b + 3], i4 = INDEX_LO[b + 4], i5 = INDEX_LO[b + 5];
+        double s0 = SLOPE[b], s1 = SLOPE[b + 1], s2 = SLOPE[b + 2], s3 = SLOPE[b + 3], s4 = SLOPE[b + 4], s5 = SLOPE[b + 5];
+
+        for (int i = 0; i < n; i++) {
+            double c = cp[i];
+            double v = select(c / div, l0, l1, l2, l3, l4, l5, h0, h1, h2, h3, h4, h5,
+                    i0, i1, i2, i3, i4, i5, s0, s1, s2, s3, s4, s5);
+            out[i] = c > 0 ? v : 0;
+        }
+    }
+
+    /**
+     * Overall AQI for n readings given as one column per pollutant.
+     * Works in fixed-size chunks so a multi-year series needs only one
+     * small scratch buffer regardless of n.
+     */
+    public static void aqi(double[] pm25, double[] pm10, double[] no2, double[] o3,
+                           double[] co, double[] so2, int[] out, int n) {
+        checkLength(out, n);
+        double[] max = new double[Math.min(CHUNK, n)];
+        double[] sub = new double[max.length];
+        double[][] columns = {pm25, pm10, no2, o3, co, so2};
+        Pollutant[] pollutants = Pollutant.values();
+
+        for (int from = 0; from < n; from += CHUNK) {
+            int len = Math.min(CHUNK, n - from);
+            Arrays.fill(max, 0, len, 0);
+            for (int p = 0; p < columns.length; p++) {
+                double[] column = columns[p];
+                checkLength(column, n);
+                System.arraycopy(column, from, sub, 0, len);
+                subIndices(pollutants[p], sub, sub, len);
+                for (int i = 0; i < len; i++) {
+                    max[i] = Math.max(max[i], sub[i]);
+                }
+            }
+            for (int i = 0; i < len; i++) {
+                out[from + i] = (int) Math.round(max[i]);
+            }
+        }
+    }
+
+    // ── Internals ─────────────────────────────────────────────────
+
+    // Evaluates every segment and keeps the first whose upper breakpoint is >= x.
+    // Breakpoints ascend, so each later compare can only move the choice forward.
+    private static double select(double x,
+                                 double l0, double l1, double l2, double l3, double l4, double l5,
+                                 double h0, double h1, double h2, double h3, double h4, double h5,
+                                 double i0, double i1, double i2, double i3, double i4, double i5,
+                                 double s0, double s1, double s2, double s3, double s4, double s5) {
+        double v = s0 * (x - l0) + i0;
+        v = x > h0 ? s1 * (x - l1) + i1 : v;
+        v = x > h1 ? s2 * (x - l2) + i2 : v;
+        v = x > h2 ? s3 * (x - l3) + i3 : v;
+        v = x > h3 ? s4 * (x - l4) + i4 : v;
+        v = x > h4 ? s5 * (x - l5) + i5 : v;
+        return x > h5 ? MAX_INDEX : v;
+    }
+
+    private static void checkLength(double[] array, int n) {
+        if (array.length < n) throw new IllegalArgumentException("Array shorter than n=" + n);
+    }
+
+    private static void checkLength(int[] array, int n) {
+        if (array.length < n) throw new IllegalArgumentException("Array shorter than n=" + n);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.aqi_backend.cpcb;
+
+/**
+ * Pollutants with a CPCB breakpoint table. key() is the name used in the
+ * subIndices JSON object.
+ */
+public enum Pollutant {
+    PM25("pm25"),
+    PM10("pm10"),
+    NO2("no2"),
+    O3("o3"),
+    CO("co"),
+    SO2("so2");
+
+    private final String key;
+
+    Pollutant(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
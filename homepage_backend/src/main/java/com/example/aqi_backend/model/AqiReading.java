@@ -0,0 +1,20 @@
+package com.example.aqi_backend.model;
+
+import java.util.Map;
+
+/**
+ * Response of /api/aqi and /api/aqi/locate: CPCB AQI, raw pollutant
+ * concentrations (µg/m³) and current weather. Temperatures are °C, wind
+ * speed km/h, visibility km.
+ */
+public record AqiReading(int aqi, String city, double lat, double lon,
+                         double pm25, double pm10, double no2, double o3,
+                         double co, double so2, double nh3, double no,
+                         double temperature, double feelsLike, double tempMin, double tempMax,
+                         double humidity, double pressure,
+                         double windSpeed, double windDeg, String windDir,
+                         double visibility, double clouds,
+                         long sunrise, long sunset,
+                         String description, String icon,
+                         Map<String, Double> subIndices,
+                         String standard) { }
@@ -0,0 +1,26 @@
+package com.example.aqi_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One item of a /api/aqi/batch request: either a city name or a lat/lon
+ * pair. Coordinates are deduplicated to three decimals (~100 m).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchQuery(String city, Double lat, Double lon) {
+
+    @JsonIgnore
+    public boolean hasCity() {
+        return city != null && !city.isBlank();
+    }
+
+    /** Dedupe and cache key, or null if the item names neither a city nor valid coordinates. */
+    @JsonIgnore
+    public String key() {
+        if (hasCity()) return PlaceKeys.city(city);
+        if (lat == null || lon == null || !Double.isFinite(lat) || !Double.isFinite(lon)
+                || Math.abs(lat) > 90 || Math.abs(lon) > 180) return null;
+        return PlaceKeys.coords(lat, lon);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.aqi_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one /api/aqi/batch item. index is the item's position in the
+ * request; exactly one of data and error is set. stale comes with data and
+ * is true when the reading is past its fresh period (a refresh is under way).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(int index, BatchQuery query, AqiReading data, Boolean stale, String error) {
+
+    public static BatchResult of(int index, BatchQuery query, AqiReading data, boolean stale) {
+        return new BatchResult(index, query, data, stale, null);
+    }
+
+    public static BatchResult failed(int index, BatchQuery query, String error) {
+        return new BatchResult(index, query, null, null, error);
+    }
+}
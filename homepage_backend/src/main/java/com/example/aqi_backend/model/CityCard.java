@@ -0,0 +1,19 @@
+package com.example.aqi_backend.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One card of /api/cities/india. A failed city has aqi -1 and an error
+ * message instead of readings.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CityCard(String city, int aqi, Double pm25, Double pm10, Double temp, String error) {
+
+    public static CityCard of(AqiReading r) {
+        return new CityCard(r.city(), r.aqi(), r.pm25(), r.pm10(), r.temperature(), null);
+    }
+
+    public static CityCard failed(String city, String error) {
+        return new CityCard(city, -1, null, null, null, error);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.aqi_backend.model;
+
+/** One /api/search autocomplete entry. */
+public record CitySuggestion(String display, String city, double lat, double lon) { }
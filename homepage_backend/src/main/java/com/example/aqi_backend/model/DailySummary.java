@@ -0,0 +1,4 @@
+package com.example.aqi_backend.model;
+
+/** Per-day AQI and temperature range across the forecast slots of that day. */
+public record DailySummary(int minAqi, int maxAqi, double minTemp, double maxTemp) { }
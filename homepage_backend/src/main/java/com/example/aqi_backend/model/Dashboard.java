@@ -0,0 +1,8 @@
+package com.example.aqi_backend.model;
+
+/**
+ * /api/dashboard: everything the desktop dashboard needs on first paint.
+ * Each part has the same shape as its standalone endpoint
+ * (/api/aqi, /api/forecast, pollutants).
+ */
+public record Dashboard(AqiReading current, ForecastReport forecast, Pollutants pollutants) { }
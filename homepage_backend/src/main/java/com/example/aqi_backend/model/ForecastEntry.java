@@ -0,0 +1,5 @@
+package com.example.aqi_backend.model;
+
+/** One 3-hour slot of /api/forecast, with the AQI forecast aligned to it. */
+public record ForecastEntry(long dt, String dtTxt, double temp, double humidity,
+                            String desc, String icon, int aqi) { }
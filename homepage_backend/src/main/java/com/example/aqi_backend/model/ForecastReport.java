@@ -0,0 +1,9 @@
+package com.example.aqi_backend.model;
+
+import java.util.List;
+import java.util.Map;
+
+/** Response of /api/forecast. dailySummary is keyed by "yyyy-MM-dd", in forecast order. */
+public record ForecastReport(String city,
+                             List<ForecastEntry> entries,
+                             Map<String, DailySummary> dailySummary) { }
@@ -0,0 +1,4 @@
+package com.example.aqi_backend.model;
+
+/** A resolved place: display name plus the coordinates OWM returned for it. */
+public record GeoLocation(String name, double lat, double lon) { }
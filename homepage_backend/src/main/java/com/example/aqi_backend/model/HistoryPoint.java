@@ -0,0 +1,7 @@
+package com.example.aqi_backend.model;
+
+/** One hourly reading of /api/aqi/history. */
+public record HistoryPoint(long dt,
+                           double pm25, double pm10, double no2, double o3,
+                           double co, double so2, double nh3, double no,
+                           int aqi) { }
@@ -0,0 +1,23 @@
+package com.example.aqi_backend.model;
+
+/**
+ * One marker on /api/aqi/map. updatedAt is the epoch second the reading was
+ * first fetched; a refresh that gets the same reading again keeps the
+ * earlier marker. stale is set when the latest refresh failed and this is
+ * the previous reading carried over.
+ */
+public record MapCity(String name, double lat, double lon,
+                      int aqi, double pm25, double pm10, double temp,
+                      long updatedAt, boolean stale) {
+
+    /** Same place and values, ignoring updatedAt and stale. */
+    public boolean sameReading(MapCity other) {
+        return other != null
+                && name.equals(other.name) && lat == other.lat && lon == other.lon
+                && aqi == other.aqi && pm25 == other.pm25 && pm10 == other.pm10 && temp == other.temp;
+    }
+
+    public MapCity markStale() {
+        return stale ? this : new MapCity(name, lat, lon, aqi, pm25, pm10, temp, updatedAt, true);
+    }
+}
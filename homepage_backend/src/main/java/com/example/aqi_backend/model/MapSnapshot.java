@@ -0,0 +1,23 @@
+package com.example.aqi_backend.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable set of map markers published by one refresh. modifiedAt is when
+ * the markers last changed: a refresh that finds every city as it was keeps
+ * the previous snapshot's modifiedAt.
+ */
+public record MapSnapshot(Instant refreshedAt, Instant modifiedAt, List<MapCity> cities) {
+
+    public static final MapSnapshot EMPTY = new MapSnapshot(Instant.EPOCH, Instant.EPOCH, List.of());
+
+    public MapSnapshot {
+        cities = List.copyOf(cities);
+    }
+
+    public long ageSeconds() {
+        return Duration.between(refreshedAt, Instant.now()).getSeconds();
+    }
+}
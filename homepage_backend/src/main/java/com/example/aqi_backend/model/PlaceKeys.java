@@ -0,0 +1,27 @@
+package com.example.aqi_backend.model;
+
+import java.util.Locale;
+
+/**
+ * Cache and dedupe keys for a place, shared by the geocode cache, the
+ * stale-while-revalidate caches and batch deduplication so that one place
+ * is one key everywhere.
+ */
+public final class PlaceKeys {
+
+    private PlaceKeys() { }
+
+    /** Trimmed, inner whitespace collapsed, lower case independent of the default locale. */
+    public static String normalizeCity(String city) {
+        return city.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public static String city(String city) {
+        return "city:" + normalizeCity(city);
+    }
+
+    /** Coordinates rounded to three decimals (~110 m). */
+    public static String coords(double lat, double lon) {
+        return "at:" + Math.round(lat * 1000) + "," + Math.round(lon * 1000);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.aqi_backend.model;
+
+/** Current pollutant concentrations (µg/m³) for a city. */
+public record Pollutants(String city,
+                         double pm25, double pm10, double no2, double o3,
+                         double co, double so2, double nh3, double no) {
+
+    public static Pollutants of(AqiReading r) {
+        return new Pollutants(r.city(), r.pm25(), r.pm10(), r.no2(), r.o3(), r.co(), r.so2(), r.nh3(), r.no());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.aqi_backend.quota;
+
+import com.example.aqi_backend.client.OwmEndpoint;
+
+/** Groups of OWM endpoints that share one token bucket. */
+public enum QuotaClass {
+
+    GEOCODING ("geocoding"),
+    WEATHER   ("weather"),
+    POLLUTION ("pollution");
+
+    private final String key;
+
+    QuotaClass(String key) {
+        this.key = key;
+    }
+
+    /** Name used in aqi.quota.* properties and metric tags. */
+    public String key() { return key; }
+
+    public static QuotaClass of(OwmEndpoint endpoint) {
+        return switch (endpoint) {
+            case GEO_DIRECT, GEO_REVERSE -> GEOCODING;
+            case WEATHER, FORECAST -> WEATHER;
+            case AIR_POLLUTION, AIR_POLLUTION_FORECAST, AIR_POLLUTION_HISTORY -> POLLUTION;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.aqi_backend.quota;
+
+/** An upstream call was shed because its quota class had no budget left for its workload. */
+public class QuotaExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final QuotaClass quotaClass;
+    private final Workload workload;
+
+    public QuotaExceededException(QuotaClass quotaClass, Workload workload) {
+        super("OWM " + quotaClass.key() + " quota exhausted for " + workload.name().toLowerCase() + " requests");
+        this.quotaClass = quotaClass;
+        this.workload   = workload;
+    }
+
+    public QuotaClass getQuotaClass() { return quotaClass; }
+    public Workload getWorkload()     { return workload; }
+}
@@ -0,0 +1,127 @@
+package com.example.aqi_backend.quota;
+
+import com.example.aqi_backend.client.OwmEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Central budget for calls on the shared OWM key: one token bucket per
+ * QuotaClass, sized by aqi.quota.{class}.per-minute and .burst.
+ *
+ * Every upstream call takes a token first. Lower-priority workloads may not
+ * dip into the share of the bucket reserved for higher ones (see Workload);
+ * when their share is empty they wait for a refill, up to their maxWait,
+ * and are shed with QuotaExceededException beyond that. The wait is
+ * asynchronous: acquire returns a future.
+ *
+ * Metrics: aqi.quota.available{class} (tokens left),
+ * aqi.quota.requests{class,workload,result=granted|delayed|shed} and
+ * aqi.quota.wait{class,workload}, the time delayed calls spent waiting.
+ */
+@Component
+public class QuotaManager {
+
+    private final boolean enabled;
+    private final Map<QuotaClass, TokenBucket> buckets = new EnumMap<>(QuotaClass.class);
+    private final Map<QuotaClass, Map<Workload, Counter[]>> counters = new EnumMap<>(QuotaClass.class);
+    private final Map<QuotaClass, Map<Workload, Timer>> waits = new EnumMap<>(QuotaClass.class);
+
+    private static final CompletableFuture<Void> GRANTED_NOW = CompletableFuture.completedFuture(null);
+    private static final int GRANTED = 0, DELAYED = 1, SHED = 2;
+    private static final String[] RESULTS = {"granted", "delayed", "shed"};
+
+    public QuotaManager(MeterRegistry meterRegistry,
+                        @Value("${aqi.quota.enabled:true}") boolean enabled,
+                        @Value("${aqi.quota.geocoding.per-minute:300}") int geocodingPerMinute,
+                        @Value("${aqi.quota.geocoding.burst:100}") int geocodingBurst,
+                        @Value("${aqi.quota.weather.per-minute:300}") int weatherPerMinute,
+                        @Value("${aqi.quota.weather.burst:150}") int weatherBurst,
+                        @Value("${aqi.quota.pollution.per-minute:600}") int pollutionPerMinute,
+                        @Value("${aqi.quota.pollution.burst:250}") int pollutionBurst) {
+        this.enabled = enabled;
+        buckets.put(QuotaClass.GEOCODING, new TokenBucket(geocodingPerMinute, geocodingBurst));
+        buckets.put(QuotaClass.WEATHER,   new TokenBucket(weatherPerMinute,   weatherBurst));
+        buckets.put(QuotaClass.POLLUTION, new TokenBucket(pollutionPerMinute, pollutionBurst));
+
+        for (QuotaClass qc : QuotaClass.values()) {
+            Gauge.builder("aqi.quota.available", buckets.get(qc), TokenBucket::available)
+                    .tag("class", qc.key())
+                    .register(meterRegistry);
+            Map<Workload, Counter[]> byWorkload = new EnumMap<>(Workload.class);
+            Map<Workload, Timer> waitByWorkload = new EnumMap<>(Workload.class);
+            for (Workload w : Workload.values()) {
+                waitByWorkload.put(w, Timer.builder("aqi.quota.wait")
+                        .tag("class", qc.key()).tag("workload", w.name().toLowerCase())
+                        .register(meterRegistry));
+                Counter[] c = new Counter[RESULTS.length];
+                for (int i = 0; i < c.length; i++) {
+                    c[i] = Counter.builder("aqi.quota.requests")
+                            .tag("class", qc.key()).tag("workload", w.name().toLowerCase()).tag("result", RESULTS[i])
+                            .register(meterRegistry);
+                }
+                byWorkload.put(w, c);
+            }
+            counters.put(qc, byWorkload);
+            waits.put(qc, waitByWorkload);
+        }
+    }
+
+    /**
+     * Takes a token for one call to endpoint. The future completes at once
+     * if the workload's share has a token; otherwise it completes after a
+     * refill, or fails with QuotaExceededException if none becomes available
+     * within the workload's maxWait. Waiting is done on a timer, never on
+     * the caller's thread, so it counts against the caller's own deadline.
+     */
+    public CompletableFuture<Void> acquire(OwmEndpoint endpoint, Workload workload) {
+        if (!enabled) return GRANTED_NOW;
+        QuotaClass qc = QuotaClass.of(endpoint);
+        Counter[] c = counters.get(qc).get(workload);
+
+        long wait = buckets.get(qc).tryAcquire(workload.reserve());
+        if (wait == 0) {
+            c[GRANTED].increment();
+            return GRANTED_NOW;
+        }
+
+        CompletableFuture<Void> acquired = new CompletableFuture<>();
+        long start = System.nanoTime();
+        retryAfter(wait, qc, workload, start, start + workload.maxWait().toNanos(), acquired);
+        return acquired;
+    }
+
+    private void retryAfter(long wait, QuotaClass qc, Workload workload, long start, long deadline,
+                            CompletableFuture<Void> acquired) {
+        Counter[] c = counters.get(qc).get(workload);
+        if (wait > deadline - System.nanoTime()) {
+            c[SHED].increment();
+            acquired.completeExceptionally(new QuotaExceededException(qc, workload));
+            return;
+        }
+        CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(() -> {
+            if (acquired.isDone()) return; // the caller gave up
+            long next = buckets.get(qc).tryAcquire(workload.reserve());
+            if (next > 0) {
+                retryAfter(next, qc, workload, start, deadline, acquired);
+                return;
+            }
+            c[DELAYED].increment();
+            waits.get(qc).get(workload).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            acquired.complete(null);
+        });
+    }
+
+    /** Tokens left in the bucket of a quota class. */
+    public double available(QuotaClass quotaClass) {
+        return buckets.get(quotaClass).available();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.aqi_backend.quota;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket, kept as a single AtomicLong.
+ *
+ * Uses the generic cell rate algorithm: instead of a token count the bucket
+ * stores the time at which it would be completely full again (tat). Taking
+ * a token moves tat one interval later; the bucket holds burst tokens when
+ * tat is at or before now. Acquire is one CAS on the success path.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final int burst;
+    private final LongSupplier clock;
+    private final AtomicLong tat;
+
+    TokenBucket(int perMinute, int burst) {
+        this(perMinute, burst, System::nanoTime);
+    }
+
+    TokenBucket(int perMinute, int burst, LongSupplier clock) {
+        if (perMinute <= 0 || burst <= 0) throw new IllegalArgumentException("rate and burst must be > 0");
+        this.intervalNanos = 60_000_000_000L / perMinute;
+        this.burst         = burst;
+        this.clock         = clock;
+        this.tat           = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Takes one token unless that would leave fewer than reserve * burst
+     * tokens. Returns 0 on success, otherwise the nanoseconds until a
+     * token could be taken at this reserve.
+     */
+    long tryAcquire(double reserve) {
+        long limit = (long) Math.ceil(burst * (1 - reserve)) * intervalNanos;
+        while (true) {
+            long now  = clock.getAsLong();
+            long t    = tat.get();
+            long next = Math.max(t, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > limit) return ahead - limit;
+            if (tat.compareAndSet(t, next)) return 0;
+        }
+    }
+
+    /** Tokens currently available to the highest priority. */
+    double available() {
+        long backlog = Math.max(0, tat.get() - clock.getAsLong());
+        return burst - (double) backlog / intervalNanos;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.aqi_backend.quota;
+
+import java.time.Duration;
+
+/**
+ * What an upstream call is for, in priority order. Passed explicitly from
+ * the entry point (controller or background job) down to the quota check.
+ *
+ * reserve is the share of each token bucket this workload may not use, so
+ * it is left for higher priorities; maxWait is how long it queues for a
+ * token before the call is shed.
+ */
+public enum Workload {
+
+    /** A user waiting on a single answer: /api/aqi, /api/dashboard, /api/search, ... */
+    INTERACTIVE (0.0, Duration.ofSeconds(2)),
+    /** Many places in one request: /api/cities/india, /api/aqi/batch */
+    BULK        (0.2, Duration.ofSeconds(10)),
+    /** /api/aqi/history back-fills */
+    HISTORY     (0.3, Duration.ofSeconds(10)),
+    /** Background revalidation of a cached answer the caller already got, stale */
+    REFRESH     (0.4, Duration.ofSeconds(5)),
+    /** The scheduled /api/aqi/map refresh; nobody is waiting on it */
+    MAP_REFRESH (0.5, Duration.ofSeconds(60));
+
+    private final double reserve;
+    private final Duration maxWait;
+
+    Workload(double reserve, Duration maxWait) {
+        this.reserve = reserve;
+        this.maxWait = maxWait;
+    }
+
+    public double reserve()    { return reserve; }
+    public Duration maxWait()  { return maxWait; }
+}
@@ -0,0 +1,57 @@
+package com.example.aqi_backend.resilience;
+
+/**
+ * Concurrency limit that adapts to observed latency (AIMD).
+ *
+ * A request may start while fewer than limit requests are in flight. When
+ * one finishes slower than latencyThreshold, or fails, the limit is cut by
+ * backoff; when one finishes in time while the limit was at least half
+ * used, it grows by one. So the limit tracks how much concurrency the
+ * server can take before latency degrades, and requests beyond it are
+ * turned away instead of queueing behind a slow upstream.
+ * Methods are synchronized; each is a few field updates.
+ */
+public class AdaptiveLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoff;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoff) {
+        if (minLimit <= 0 || minLimit > maxLimit) throw new IllegalArgumentException("need 0 < minLimit <= maxLimit");
+        if (backoff <= 0 || backoff >= 1) throw new IllegalArgumentException("backoff must be in (0, 1)");
+        this.minLimit              = minLimit;
+        this.maxLimit              = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoff               = backoff;
+        this.limit                 = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** True if the request may start; it must then call onComplete exactly once. */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) return false;
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void onComplete(long latencyNanos, boolean failed) {
+        int used = inFlight--;
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoff);
+        } else if (used * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.aqi_backend.resilience;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker for one upstream endpoint.
+ *
+ * CLOSED lets every call through and opens after failureThreshold failures
+ * in a row. OPEN rejects calls until openDuration has passed, then lets a
+ * single probe through (HALF_OPEN): success closes the circuit, failure
+ * opens it again. Methods are synchronized; each is a few field updates.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openNanos) {
+        this(failureThreshold, openNanos, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier clock) {
+        if (failureThreshold <= 0) throw new IllegalArgumentException("failureThreshold must be > 0");
+        this.failureThreshold = failureThreshold;
+        this.openNanos        = openNanos;
+        this.clock            = clock;
+    }
+
+    /** True if a call may go out now; in HALF_OPEN only the single probe gets true. */
+    public synchronized boolean tryPass() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openNanos) return false;
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                return false; // probe already in flight
+        }
+    }
+
+    public synchronized void onSuccess() {
+        // A call that went out before the circuit opened says nothing about the endpoint now
+        if (state == State.OPEN) return;
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            failures = 0;
+        }
+    }
+
+    /** The call ended without saying anything about the endpoint's health; frees a half-open probe slot. */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong() - openNanos; // the next call may probe right away
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /** Nanoseconds until an OPEN circuit lets a probe through; 0 otherwise. */
+    public synchronized long remainingOpenNanos() {
+        return state == State.OPEN ? Math.max(0, openNanos - (clock.getAsLong() - openedAt)) : 0;
+    }
+}
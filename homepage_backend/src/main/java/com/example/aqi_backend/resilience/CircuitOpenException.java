@@ -0,0 +1,15 @@
+package com.example.aqi_backend.resilience;
+
+import com.example.aqi_backend.client.OwmClientException;
+import com.example.aqi_backend.client.OwmEndpoint;
+
+/** A call was not sent because the endpoint's circuit breaker is open. */
+public class CircuitOpenException extends OwmClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(OwmEndpoint endpoint, long retryAfterMillis) {
+        super(endpoint, endpoint.shortName() + " is failing; not retried for another "
+                + retryAfterMillis + " ms", null);
+    }
+}
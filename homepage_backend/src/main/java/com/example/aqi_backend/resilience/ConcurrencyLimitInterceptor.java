@@ -0,0 +1,69 @@
+package com.example.aqi_backend.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Admits requests of one endpoint group through its AdaptiveLimiter.
+ *
+ * Over the limit the request is answered at once with 503, Retry-After and
+ * the usual {"error": ...} body. An admitted request holds its slot until
+ * it completes; for streamed responses that is the end of the async
+ * dispatch, which passes through preHandle again without taking a second
+ * slot. A request fails if it throws, answers 5xx, or was marked by
+ * UpstreamFailures.
+ */
+class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_AT = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+
+    private final String group;
+    private final AdaptiveLimiter limiter;
+    private final long retryAfterSeconds;
+    private final Counter accepted;
+    private final Counter rejected;
+
+    ConcurrencyLimitInterceptor(String group, AdaptiveLimiter limiter, long retryAfterSeconds,
+                                Counter accepted, Counter rejected) {
+        this.group             = group;
+        this.limiter           = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.accepted          = accepted;
+        this.rejected          = rejected;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true; // slot taken on the first dispatch
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy (" + group + "), retry in "
+                    + retryAfterSeconds + " s\"}");
+            return false;
+        }
+        accepted.increment();
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt == null) return;
+        request.removeAttribute(STARTED_AT);
+        boolean failed = ex != null || response.getStatus() >= 500
+                || request.getAttribute(UpstreamFailures.ATTRIBUTE) != null;
+        limiter.onComplete(System.nanoTime() - (long) startedAt, failed);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.aqi_backend.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limits on the REST layer, one AdaptiveLimiter per
+ * endpoint group, so requests piling up behind a slow OWM are shed with 503
+ * before they tie up every Tomcat thread:
+ *
+ *   interactive  /api/aqi, /api/aqi/locate, /api/forecast/**,
+ *                /api/dashboard/**, /api/search
+ *   history      /api/aqi/history
+ *   bulk         /api/aqi/batch, /api/cities/india
+ *   map          /api/aqi/map (the event stream is long-lived and not limited)
+ *   profile      /api/health-profile/**
+ *
+ * Bulk requests and history back-fills legitimately take long, so each has
+ * its own latency threshold. Metrics: aqi.limit.limit{group}, aqi.limit.in.flight{group} and
+ * aqi.limit.requests{group, result=accepted|rejected}.
+ */
+@Configuration
+public class ConcurrencyLimits implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Duration latencyThreshold;
+    private final Duration bulkLatencyThreshold;
+    private final Duration historyLatencyThreshold;
+    private final double backoff;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimits(MeterRegistry meterRegistry,
+                             @Value("${aqi.limit.enabled:true}") boolean enabled,
+                             @Value("${aqi.limit.initial:20}") int initialLimit,
+                             @Value("${aqi.limit.min:4}") int minLimit,
+                             @Value("${aqi.limit.max:200}") int maxLimit,
+                             @Value("${aqi.limit.latency-threshold:3s}") Duration latencyThreshold,
+                             @Value("${aqi.limit.bulk.latency-threshold:30s}") Duration bulkLatencyThreshold,
+                             @Value("${aqi.limit.history.latency-threshold:15s}") Duration historyLatencyThreshold,
+                             @Value("${aqi.limit.backoff:0.9}") double backoff,
+                             @Value("${aqi.limit.retry-after:1s}") Duration retryAfter) {
+        this.meterRegistry           = meterRegistry;
+        this.enabled                 = enabled;
+        this.initialLimit            = initialLimit;
+        this.minLimit                = minLimit;
+        this.maxLimit                = maxLimit;
+        this.latencyThreshold        = latencyThreshold;
+        this.bulkLatencyThreshold    = bulkLatencyThreshold;
+        this.historyLatencyThreshold = historyLatencyThreshold;
+        this.backoff                 = backoff;
+        this.retryAfterSeconds       = Math.max(1, retryAfter.toSeconds());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) return;
+        registry.addInterceptor(interceptor("interactive", latencyThreshold))
+                .addPathPatterns("/api/aqi", "/api/aqi/locate",
+                        "/api/forecast/**", "/api/dashboard/**", "/api/search");
+        registry.addInterceptor(interceptor("history", historyLatencyThreshold))
+                .addPathPatterns("/api/aqi/history");
+        registry.addInterceptor(interceptor("bulk", bulkLatencyThreshold))
+                .addPathPatterns("/api/aqi/batch", "/api/cities/india");
+        registry.addInterceptor(interceptor("map", latencyThreshold))
+                .addPathPatterns("/api/aqi/map");
+        registry.addInterceptor(interceptor("profile", latencyThreshold))
+                .addPathPatterns("/api/health-profile/**");
+    }
+
+    private ConcurrencyLimitInterceptor interceptor(String group, Duration threshold) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(initialLimit, minLimit, maxLimit, threshold.toNanos(), backoff);
+        Gauge.builder("aqi.limit.limit", limiter, AdaptiveLimiter::limit)
+                .tag("group", group)
+                .register(meterRegistry);
+        Gauge.builder("aqi.limit.in.flight", limiter, AdaptiveLimiter::inFlight)
+                .tag("group", group)
+                .register(meterRegistry);
+        Counter accepted = Counter.builder("aqi.limit.requests")
+                .tag("group", group).tag("result", "accepted")
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("aqi.limit.requests")
+                .tag("group", group).tag("result", "rejected")
+                .register(meterRegistry);
+        return new ConcurrencyLimitInterceptor(group, limiter, retryAfterSeconds, accepted, rejected);
+    }
+}
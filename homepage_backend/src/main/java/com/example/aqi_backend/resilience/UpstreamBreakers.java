@@ -0,0 +1,97 @@
+package com.example.aqi_backend.resilience;
+
+import com.example.aqi_backend.client.ConnectionUnavailableException;
+import com.example.aqi_backend.client.OwmClientException;
+import com.example.aqi_backend.client.OwmEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * One CircuitBreaker per OWM endpoint.
+ *
+ * Transport errors, timeouts, HTTP 429 and 5xx count as failures; other 4xx
+ * answers mean the endpoint is up and count as successes. Failures raised
+ * before anything was sent (quota shedding, no free local connection) are
+ * ignored. While a
+ * circuit is open, calls to that endpoint fail at once with
+ * CircuitOpenException.
+ *
+ * Metrics: aqi.breaker.state{endpoint} (0 closed, 1 half-open, 2 open) and
+ * aqi.breaker.rejected{endpoint}.
+ */
+@Component
+public class UpstreamBreakers {
+
+    private final boolean enabled;
+    private final Map<OwmEndpoint, CircuitBreaker> breakers = new EnumMap<>(OwmEndpoint.class);
+    private final Map<OwmEndpoint, Counter> rejected = new EnumMap<>(OwmEndpoint.class);
+
+    public UpstreamBreakers(MeterRegistry meterRegistry,
+                            @Value("${aqi.breaker.enabled:true}") boolean enabled,
+                            @Value("${aqi.breaker.failure-threshold:5}") int failureThreshold,
+                            @Value("${aqi.breaker.open-duration:30s}") Duration openDuration) {
+        this.enabled = enabled;
+        for (OwmEndpoint endpoint : OwmEndpoint.values()) {
+            CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openDuration.toNanos());
+            breakers.put(endpoint, breaker);
+            Gauge.builder("aqi.breaker.state", breaker, b -> b.state().ordinal())
+                    .tag("endpoint", endpoint.shortName())
+                    .register(meterRegistry);
+            rejected.put(endpoint, Counter.builder("aqi.breaker.rejected")
+                    .tag("endpoint", endpoint.shortName())
+                    .register(meterRegistry));
+        }
+    }
+
+    /** Runs call through the endpoint's breaker, recording how it ends. */
+    public <T> CompletableFuture<T> call(OwmEndpoint endpoint, Supplier<CompletableFuture<T>> call) {
+        if (!enabled) return call.get();
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (!breaker.tryPass()) {
+            rejected.get(endpoint).increment();
+            return CompletableFuture.failedFuture(
+                    new CircuitOpenException(endpoint, breaker.remainingOpenNanos() / 1_000_000));
+        }
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            breaker.onIgnored();
+            throw e;
+        }
+        return result.whenComplete((v, t) -> {
+            if (t == null) {
+                breaker.onSuccess();
+                return;
+            }
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            if (cause instanceof ConnectionUnavailableException) {
+                breaker.onIgnored();
+            } else if (cause instanceof OwmClientException e && e.getStatus() > 0) {
+                if (e.getStatus() == 429 || e.getStatus() >= 500) breaker.onFailure();
+                else breaker.onSuccess();
+            } else if (cause instanceof OwmClientException || cause instanceof IOException
+                    || cause instanceof UncheckedIOException) {
+                breaker.onFailure();
+            } else {
+                breaker.onIgnored();
+            }
+        });
+    }
+
+    public CircuitBreaker.State state(OwmEndpoint endpoint) {
+        return breakers.get(endpoint).state();
+    }
+}
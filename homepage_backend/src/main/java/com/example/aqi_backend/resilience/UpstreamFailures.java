@@ -0,0 +1,42 @@
+package com.example.aqi_backend.resilience;
+
+import com.example.aqi_backend.client.OwmClientException;
+import com.example.aqi_backend.concurrent.BulkheadFullException;
+import com.example.aqi_backend.quota.QuotaExceededException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Tells the concurrency limiter that a request failed because of OWM or
+ * our own shedding in front of it, even though the controller answers it
+ * with a 4xx.
+ *
+ * Upstream failures are OWM errors (transport, timeout, 429, 5xx), open
+ * circuits, and calls shed for lack of quota or bulkhead room, anywhere in
+ * the exception's cause chain. Other 4xx answers from OWM and our own
+ * validation errors are not.
+ */
+public final class UpstreamFailures {
+
+    static final String ATTRIBUTE = UpstreamFailures.class.getName() + ".failed";
+
+    private UpstreamFailures() { }
+
+    /** Marks the current request as failed upstream if e is an upstream failure. */
+    public static void record(Throwable e) {
+        if (!isUpstreamFailure(e)) return;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) attributes.setAttribute(ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    static boolean isUpstreamFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof QuotaExceededException || t instanceof BulkheadFullException) return true;
+            if (t instanceof OwmClientException owm) {
+                int status = owm.getStatus();
+                return status <= 0 || status == 429 || status >= 500;
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,25 @@
 package com.example.aqi_backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.aqi_backend.cache.ExpiringLruCache;
+import com.example.aqi_backend.cache.GeoHash;
+import com.example.aqi_backend.cache.SingleFlight;
+import com.example.aqi_backend.catalog.CityCatalog;
+import com.example.aqi_backend.client.*;
+import com.example.aqi_backend.concurrent.FanOutExecutor;
+import com.example.aqi_backend.concurrent.Futures;
+import com.example.aqi_backend.cpcb.AqiSeries;
+import com.example.aqi_backend.cpcb.CpcbAqi;
+import com.example.aqi_backend.cpcb.Pollutant;
+import com.example.aqi_backend.model.*;
+import com.example.aqi_backend.quota.QuotaManager;
+import com.example.aqi_backend.quota.Workload;
+import com.example.aqi_backend.resilience.UpstreamBreakers;
+import com.example.aqi_backend.store.ReadingStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
@@ -13,11 +27,7 @@ import java.util.concurrent.*;
 @Service
 public class AqiService {
 
-    @Value("${owm.api.key}")
-    private String owmKey;
-
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OwmClient owmClient;
 
     // ── India cities list ─────────────────────────────────────────
     private static final List<String> INDIA_CITIES = List.of(
@@ -25,481 +35,532 @@ public class AqiService {
             "Bengaluru", "Hyderabad", "Ahmedabad", "Kochi"
     );
 
+    // Normalized city name -> resolved location; Optional.empty() remembers "City not found"
+    private final ExpiringLruCache<String, Optional<GeoLocation>> geocodeCache;
+    private final Duration geocodeTtl;
+    private final Duration geocodeNegativeTtl;
+
+    // Geohash cell -> place name, so nearby coordinates share one reverse lookup
+    private final ExpiringLruCache<String, String> reverseGeocodeCache;
+    private final int reverseGeocodePrecision;
+    private final Duration reverseGeocodeTtl;
+
+    // Concurrent identical weather/pollution fetches share one upstream call
+    private final SingleFlight<String, Object> upstreamFlights;
+
+    // Longest a request waits on any single upstream call
+    private final Duration upstreamDeadline;
+
+    private final FanOutExecutor fanOut;
+
+    // Every fetched pollution reading is kept here; history is served from it
+    private final ReadingStore readingStore;
+
+    // Answers /api/search from memory; OWM geocoding only for places it does not know
+    private final CityCatalog cityCatalog;
+
+    // Every upstream call passes its endpoint's circuit breaker, then takes a token for its workload
+    private final UpstreamBreakers breakers;
+    private final QuotaManager quota;
+    private final UpstreamMetrics upstreamMetrics;
+
+    public AqiService(OwmClient owmClient,
+                      MeterRegistry meterRegistry,
+                      FanOutExecutor fanOut,
+                      ReadingStore readingStore,
+                      CityCatalog cityCatalog,
+                      UpstreamBreakers breakers,
+                      QuotaManager quota,
+                      UpstreamMetrics upstreamMetrics,
+                      @Value("${aqi.geocode.cache.max-size:2000}") int geocodeCacheSize,
+                      @Value("${aqi.geocode.cache.ttl:24h}") Duration geocodeTtl,
+                      @Value("${aqi.geocode.cache.negative-ttl:10m}") Duration geocodeNegativeTtl,
+                      @Value("${aqi.reverse-geocode.cache.max-size:5000}") int reverseGeocodeCacheSize,
+                      @Value("${aqi.reverse-geocode.cache.ttl:7d}") Duration reverseGeocodeTtl,
+                      @Value("${aqi.reverse-geocode.precision:6}") int reverseGeocodePrecision,
+                      @Value("${aqi.upstream.deadline:10s}") Duration upstreamDeadline) {
+        this.owmClient = owmClient;
+
+        this.geocodeCache = new ExpiringLruCache<String, Optional<GeoLocation>>(geocodeCacheSize)
+                .bindTo(meterRegistry, "geocode");
+        this.geocodeTtl         = geocodeTtl;
+        this.geocodeNegativeTtl = geocodeNegativeTtl;
+
+        this.reverseGeocodeCache = new ExpiringLruCache<String, String>(reverseGeocodeCacheSize)
+                .bindTo(meterRegistry, "reverse-geocode");
+        this.reverseGeocodeTtl       = reverseGeocodeTtl;
+        this.reverseGeocodePrecision = reverseGeocodePrecision;
+        GeoHash.encode(0, 0, reverseGeocodePrecision); // fail fast on a bad precision setting
+
+        this.upstreamFlights  = new SingleFlight<String, Object>().bindTo(meterRegistry, "owm");
+        this.upstreamDeadline = upstreamDeadline;
+        this.fanOut = fanOut;
+        this.readingStore = readingStore;
+        this.cityCatalog  = cityCatalog;
+        this.breakers     = breakers;
+        this.quota        = quota;
+        this.upstreamMetrics = upstreamMetrics;
+    }
+
     // ── Search by city name ───────────────────────────────────────
-    public Map<String, Object> getAqiByCity(String city) {
+    public AqiReading getAqiByCity(String city) {
+        return getAqiByCity(city, Workload.INTERACTIVE);
+    }
+
+    public AqiReading getAqiByCity(String city, Workload workload) {
         try {
-            String geoUrl = "https://api.openweathermap.org/geo/1.0/direct?q="
-                    + city.replace(" ", "+") + ",IN&limit=1&appid=" + owmKey;
-            String geoResponse = restTemplate.getForObject(geoUrl, String.class);
-            JsonNode geoRoot = objectMapper.readTree(geoResponse);
-
-            if (!geoRoot.isArray() || geoRoot.size() == 0) {
-                geoUrl = "https://api.openweathermap.org/geo/1.0/direct?q="
-                        + city.replace(" ", "+") + "&limit=1&appid=" + owmKey;
-                geoResponse = restTemplate.getForObject(geoUrl, String.class);
-                geoRoot = objectMapper.readTree(geoResponse);
-                if (!geoRoot.isArray() || geoRoot.size() == 0)
-                    throw new RuntimeException("City not found: " + city);
-            }
+            GeoLocation loc = resolveCity(city, workload);
+            return fetchAllData(loc.lat(), loc.lon(), CompletableFuture.completedFuture(loc.name()), workload);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch data: " + e.getMessage(), e);
+        }
+    }
 
-            double lat = geoRoot.get(0).path("lat").asDouble();
-            double lon = geoRoot.get(0).path("lon").asDouble();
-            String resolvedCity = geoRoot.get(0).path("name").asText(city);
+    // ── Geocoding (cached) ────────────────────────────────────────
+    // Tries "<city>,IN" first, then the bare name. Misses are cached too,
+    // for a shorter time, so repeated typos don't cost two upstream calls each.
+    private GeoLocation resolveCity(String city, Workload workload) throws Exception {
+        String key = PlaceKeys.normalizeCity(city);
+        Optional<GeoLocation> cached = geocodeCache.get(key);
+        if (cached == null) {
+            cached = geocode(city, workload);
+            geocodeCache.put(key, cached, cached.isPresent() ? geocodeTtl : geocodeNegativeTtl);
+        }
+        return cached.orElseThrow(() -> new RuntimeException("City not found: " + city));
+    }
 
-            return fetchAllData(lat, lon, resolvedCity);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to fetch data: " + e.getMessage());
+    private Optional<GeoLocation> geocode(String city, Workload workload) throws Exception {
+        List<GeoPlace> places = fetch(OwmEndpoint.GEO_DIRECT, workload,
+                Map.of("q", city + ",IN", "limit", 1), OwmJsonDecoder::places);
+
+        if (places.isEmpty()) {
+            places = fetch(OwmEndpoint.GEO_DIRECT, workload,
+                    Map.of("q", city, "limit", 1), OwmJsonDecoder::places);
+            if (places.isEmpty())
+                return Optional.empty();
         }
+
+        GeoPlace first = places.get(0);
+        return Optional.of(new GeoLocation(
+                first.name() != null ? first.name() : city,
+                first.lat(),
+                first.lon()));
     }
 
     // ── Search by coordinates ─────────────────────────────────────
-    public Map<String, Object> getAqiByCoords(double lat, double lon) {
-        try {
-            String reverseUrl = "https://api.openweathermap.org/geo/1.0/reverse?lat="
-                    + lat + "&lon=" + lon + "&limit=1&appid=" + owmKey;
-            String reverseResponse = restTemplate.getForObject(reverseUrl, String.class);
-            JsonNode reverseRoot = objectMapper.readTree(reverseResponse);
-
-            String cityName = (reverseRoot.isArray() && reverseRoot.size() > 0)
-                    ? reverseRoot.get(0).path("name").asText("Your Location")
-                    : "Your Location";
+    public AqiReading getAqiByCoords(double lat, double lon) {
+        return getAqiByCoords(lat, lon, Workload.INTERACTIVE);
+    }
 
-            return fetchAllData(lat, lon, cityName);
+    public AqiReading getAqiByCoords(double lat, double lon, Workload workload) {
+        try {
+            return fetchAllData(lat, lon, reverseGeocodeAsync(lat, lon, workload), workload);
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to fetch location data: " + e.getMessage());
+            throw new RuntimeException("Failed to fetch location data: " + e.getMessage(), e);
         }
     }
 
+    // ── Reverse geocoding (cached per geohash cell) ───────────────
+    // Returns a future so the lookup can run alongside the weather/pollution calls.
+    private CompletableFuture<String> reverseGeocodeAsync(double lat, double lon, Workload workload) {
+        String cell = GeoHash.encode(lat, lon, reverseGeocodePrecision);
+        String cached = reverseGeocodeCache.get(cell);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        return withDeadline(OwmEndpoint.GEO_REVERSE, call(OwmEndpoint.GEO_REVERSE, workload,
+                Map.of("lat", lat, "lon", lon, "limit", 1), OwmJsonDecoder::places))
+                .thenApply(places -> {
+                    boolean found = !places.isEmpty();
+                    String cityName = found && places.get(0).name() != null
+                            ? places.get(0).name()
+                            : "Your Location";
+                    reverseGeocodeCache.put(cell, cityName, found ? reverseGeocodeTtl : geocodeNegativeTtl);
+                    return cityName;
+                });
+    }
+
     // ── Fetch weather + air pollution ─────────────────────────────
-    private Map<String, Object> fetchAllData(double lat, double lon, String cityName) throws Exception {
-
-        String weatherUrl = "https://api.openweathermap.org/data/2.5/weather?lat="
-                + lat + "&lon=" + lon + "&units=metric&appid=" + owmKey;
-        String weatherResponse = restTemplate.getForObject(weatherUrl, String.class);
-        JsonNode weatherRoot = objectMapper.readTree(weatherResponse);
-
-        double temp        = weatherRoot.path("main").path("temp").asDouble();
-        double feelsLike   = weatherRoot.path("main").path("feels_like").asDouble();
-        double tempMin     = weatherRoot.path("main").path("temp_min").asDouble();
-        double tempMax     = weatherRoot.path("main").path("temp_max").asDouble();
-        double humidity    = weatherRoot.path("main").path("humidity").asDouble();
-        double pressure    = weatherRoot.path("main").path("pressure").asDouble();
-        double windSpeed   = weatherRoot.path("wind").path("speed").asDouble() * 3.6;
-        double windDeg     = weatherRoot.path("wind").path("deg").asDouble();
-        double visibility  = weatherRoot.path("visibility").asDouble() / 1000.0;
-        double clouds      = weatherRoot.path("clouds").path("all").asDouble();
-        long sunrise       = weatherRoot.path("sys").path("sunrise").asLong();
-        long sunset        = weatherRoot.path("sys").path("sunset").asLong();
-        String description = weatherRoot.path("weather").get(0).path("description").asText();
-        String icon        = weatherRoot.path("weather").get(0).path("icon").asText();
-        double windDirection = weatherRoot.path("wind").path("deg").asDouble(180);
-
-        String pollutionUrl = "https://api.openweathermap.org/data/2.5/air_pollution?lat="
-                + lat + "&lon=" + lon + "&appid=" + owmKey;
-        String pollutionResponse = restTemplate.getForObject(pollutionUrl, String.class);
-        JsonNode pollutionRoot = objectMapper.readTree(pollutionResponse);
-        JsonNode components = pollutionRoot.path("list").get(0).path("components");
-
-        double pm25 = components.path("pm2_5").asDouble();
-        double pm10 = components.path("pm10").asDouble();
-        double no2  = components.path("no2").asDouble();
-        double o3   = components.path("o3").asDouble();
-        double co   = components.path("co").asDouble();
-        double so2  = components.path("so2").asDouble();
-        double nh3  = components.path("nh3").asDouble();
-        double no   = components.path("no").asDouble();
+    // Weather, pollution and (for coordinate lookups) the place name are
+    // independent, so they run concurrently; the first failure cancels the rest.
+    private AqiReading fetchAllData(double lat, double lon, CompletableFuture<String> cityNameF,
+                                    Workload workload) throws Exception {
+        CompletableFuture<CurrentWeather> weatherF = fetchAsync(OwmEndpoint.WEATHER, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon, "units", "metric"), OwmJsonDecoder::weather);
+        CompletableFuture<List<PollutionSample>> pollutionF = fetchAsync(OwmEndpoint.AIR_POLLUTION, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon), OwmJsonDecoder::pollution);
+        Futures.awaitAll(cityNameF, weatherF, pollutionF);
+        readingStore.append(lat, lon, pollutionF.join());
+        return buildReading(lat, lon, cityNameF.join(), weatherF.join(), pollutionF.join());
+    }
+
+    private static AqiReading buildReading(double lat, double lon, String cityName,
+                                           CurrentWeather weather, List<PollutionSample> pollution) {
+        double temp        = weather.temp();
+        double feelsLike   = weather.feelsLike();
+        double tempMin     = weather.tempMin();
+        double tempMax     = weather.tempMax();
+        double humidity    = weather.humidity();
+        double pressure    = weather.pressure();
+        double windSpeed   = weather.windSpeed() * 3.6;
+        double windDeg     = weather.windDeg();
+        double visibility  = weather.visibility() / 1000.0;
+        double clouds      = weather.clouds();
+        long sunrise       = weather.sunrise();
+        long sunset        = weather.sunset();
+        String description = weather.description();
+        String icon        = weather.icon();
+
+        PollutionSample sample = latestSample(pollution);
+
+        double pm25 = sample.pm25();
+        double pm10 = sample.pm10();
+        double no2  = sample.no2();
+        double o3   = sample.o3();
+        double co   = sample.co();
+        double so2  = sample.so2();
+        double nh3  = sample.nh3();
+        double no   = sample.no();
+
+        // Indexed by Pollutant.ordinal(); each sub-index is computed once and feeds both outputs
+        double[] cp  = {pm25, pm10, no2, o3, co, so2};
+        double[] sub = new double[cp.length];
+        CpcbAqi.subIndices(cp, sub);
 
         Map<String, Double> subIndices = new HashMap<>();
-        if (pm25 > 0) subIndices.put("pm25", calcPm25(pm25));
-        if (pm10 > 0) subIndices.put("pm10", calcPm10(pm10));
-        if (no2  > 0) subIndices.put("no2",  calcNo2(no2));
-        if (o3   > 0) subIndices.put("o3",   calcO3(o3));
-        if (co   > 0) subIndices.put("co",   calcCo(co));
-        if (so2  > 0) subIndices.put("so2",  calcSo2(so2));
-
-        int cpcbAqi = subIndices.isEmpty() ? 0
-                : (int) Math.round(Collections.max(subIndices.values()));
-
-        Map<String, Object> result = new LinkedHashMap<>();
-        result.put("aqi",         cpcbAqi);
-        result.put("city",        cityName);
-        result.put("lat",         lat);
-        result.put("lon",         lon);
-        result.put("pm25",        pm25);
-        result.put("pm10",        pm10);
-        result.put("no2",         no2);
-        result.put("o3",          o3);
-        result.put("co",          co);
-        result.put("so2",         so2);
-        result.put("nh3",         nh3);
-        result.put("no",          no);
-        result.put("temperature", temp);
-        result.put("feelsLike",   feelsLike);
-        result.put("tempMin",     tempMin);
-        result.put("tempMax",     tempMax);
-        result.put("humidity",    humidity);
-        result.put("pressure",    pressure);
-        result.put("windSpeed",   windSpeed);
-        result.put("windDeg",     windDeg);
-        result.put("windDir",     degToCompass(windDeg));
-        result.put("visibility",  visibility);
-        result.put("clouds",      clouds);
-        result.put("sunrise",     sunrise);
-        result.put("sunset",      sunset);
-        result.put("description", description);
-        result.put("icon",        icon);
-        result.put("subIndices",  subIndices);
-        result.put("standard",    "CPCB India");
-        return result;
+        for (Pollutant p : Pollutant.values()) {
+            if (cp[p.ordinal()] > 0) subIndices.put(p.key(), sub[p.ordinal()]);
+        }
+        int cpcbAqi = CpcbAqi.aqiOf(sub);
+
+        return new AqiReading(cpcbAqi, cityName, lat, lon,
+                pm25, pm10, no2, o3, co, so2, nh3, no,
+                temp, feelsLike, tempMin, tempMax,
+                humidity, pressure,
+                windSpeed, windDeg, degToCompass(windDeg),
+                visibility, clouds,
+                sunrise, sunset,
+                description, icon,
+                subIndices,
+                "CPCB India");
+    }
+
+    // ── Coalesced upstream fetch ──────────────────────────────────
+    // Keyed by endpoint + lat/lon rounded to 3 decimals (~110 m). Callers that
+    // arrive while an identical call is in flight reuse its decoded response.
+    // The endpoint is part of the key, so every key maps to a single decoder type.
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> fetchAsync(OwmEndpoint endpoint, Workload workload, double lat, double lon,
+                                                Map<String, ?> params, BodyDecoder<T> decoder) {
+        String key = endpoint.shortName() + "@" + Math.round(lat * 1000) + "," + Math.round(lon * 1000);
+        CompletableFuture<Object> shared = upstreamFlights.executeAsync(key,
+                () -> call(endpoint, workload, params, decoder).thenApply(v -> (Object) v));
+        return withDeadline(endpoint, (CompletableFuture<T>) shared);
+    }
+
+    private <T> T fetchCoalesced(OwmEndpoint endpoint, Workload workload, double lat, double lon,
+                                 Map<String, ?> params, BodyDecoder<T> decoder) throws Exception {
+        return Futures.await(fetchAsync(endpoint, workload, lat, lon, params, decoder));
+    }
+
+    // Uncoalesced blocking call, for lookups keyed by name rather than position
+    private <T> T fetch(OwmEndpoint endpoint, Workload workload,
+                        Map<String, ?> params, BodyDecoder<T> decoder) throws Exception {
+        return Futures.await(withDeadline(endpoint, call(endpoint, workload, params, decoder)));
+    }
+
+    // The one place that goes upstream. Fails fast while the endpoint's circuit is open,
+    // otherwise takes a quota token (possibly waiting) and a call slot in the workload's
+    // bulkhead, and calls OWM, timed per endpoint. Neither wait holds the calling thread,
+    // so both fall inside the caller's aqi.upstream.deadline.
+    // Only the caller that starts a coalesced call pays for it.
+    private <T> CompletableFuture<T> call(OwmEndpoint endpoint, Workload workload,
+                                          Map<String, ?> params, BodyDecoder<T> decoder) {
+        return breakers.call(endpoint, () -> quota.acquire(endpoint, workload)
+                .thenCompose(granted -> fanOut.bulkhead(workload).call(
+                        () -> upstreamMetrics.record(endpoint, () -> owmClient.getAsync(endpoint, params, decoder)))));
+    }
+
+    // Bounds how long this request waits; a shared call keeps running for other waiters.
+    private <T> CompletableFuture<T> withDeadline(OwmEndpoint endpoint, CompletableFuture<T> call) {
+        return call.orTimeout(upstreamDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(t -> {
+                    Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                    if (cause instanceof TimeoutException) {
+                        throw new OwmClientException(endpoint, endpoint.shortName()
+                                + " did not answer within " + upstreamDeadline.toMillis() + " ms", cause);
+                    }
+                    throw OwmClient.unwrap(endpoint, cause);
+                });
+    }
+
+    private static PollutionSample latestSample(List<PollutionSample> samples) {
+        if (samples.isEmpty()) throw new RuntimeException("No air pollution data returned");
+        return samples.get(0);
+    }
+
+    // ── Dashboard (current + forecast + pollutants) ───────────────
+    // One location lookup, then all four data calls at once. Pollutants come
+    // from the same air_pollution response as the current reading.
+    public Dashboard getDashboard(String city) {
+        return getDashboard(city, Workload.INTERACTIVE);
+    }
+
+    public Dashboard getDashboard(String city, Workload workload) {
+        try {
+            GeoLocation loc = resolveCity(city, workload);
+            return fetchDashboard(loc.lat(), loc.lon(), CompletableFuture.completedFuture(loc.name()), workload);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch dashboard: " + e.getMessage(), e);
+        }
+    }
+
+    public Dashboard getDashboardByCoords(double lat, double lon) {
+        return getDashboardByCoords(lat, lon, Workload.INTERACTIVE);
+    }
+
+    public Dashboard getDashboardByCoords(double lat, double lon, Workload workload) {
+        try {
+            return fetchDashboard(lat, lon, reverseGeocodeAsync(lat, lon, workload), workload);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch dashboard: " + e.getMessage(), e);
+        }
+    }
+
+    private Dashboard fetchDashboard(double lat, double lon, CompletableFuture<String> cityNameF,
+                                     Workload workload) throws Exception {
+        CompletableFuture<CurrentWeather> weatherF = fetchAsync(OwmEndpoint.WEATHER, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon, "units", "metric"), OwmJsonDecoder::weather);
+        CompletableFuture<List<PollutionSample>> pollutionF = fetchAsync(OwmEndpoint.AIR_POLLUTION, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon), OwmJsonDecoder::pollution);
+        CompletableFuture<List<ForecastSlot>> slotsF = fetchAsync(OwmEndpoint.FORECAST, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon, "units", "metric"), OwmJsonDecoder::forecast);
+        CompletableFuture<List<PollutionSample>> pollForecastF = fetchAsync(OwmEndpoint.AIR_POLLUTION_FORECAST, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon), OwmJsonDecoder::pollution);
+        Futures.awaitAll(cityNameF, weatherF, pollutionF, slotsF, pollForecastF);
+        readingStore.append(lat, lon, pollutionF.join());
+
+        String cityName    = cityNameF.join();
+        AqiReading current = buildReading(lat, lon, cityName, weatherF.join(), pollutionF.join());
+        return new Dashboard(current,
+                buildForecast(cityName, slotsF.join(), pollForecastF.join()),
+                Pollutants.of(current));
     }
 
     // ── Historical AQI (past 5 days, hourly) ──────────────────────
     // Returns ~120 readings: [{ dt, pm25, pm10, no2, o3, co, so2, nh3, no, aqi }, ...]
     // Used by Flask /metrics endpoint as real y_true ground truth values.
-    public List<Map<String, Object>> getAqiHistory(double lat, double lon) {
+    public List<HistoryPoint> getAqiHistory(double lat, double lon) {
         try {
             long end   = Instant.now().getEpochSecond();
             long start = end - (5L * 24 * 60 * 60); // 5 days back
 
-            String histUrl = "http://api.openweathermap.org/data/2.5/air_pollution/history"
-                    + "?lat=" + lat
-                    + "&lon=" + lon
-                    + "&start=" + start
-                    + "&end=" + end
-                    + "&appid=" + owmKey;
-
-            String response = restTemplate.getForObject(histUrl, String.class);
-            JsonNode root   = objectMapper.readTree(response);
-            JsonNode list   = root.path("list");
-
-            List<Map<String, Object>> readings = new ArrayList<>();
-            for (JsonNode item : list) {
-                long dt       = item.path("dt").asLong();
-                JsonNode comp = item.path("components");
-
-                double pm25 = comp.path("pm2_5").asDouble();
-                double pm10 = comp.path("pm10").asDouble();
-                double no2  = comp.path("no2").asDouble();
-                double o3   = comp.path("o3").asDouble();
-                double co   = comp.path("co").asDouble();
-                double so2  = comp.path("so2").asDouble();
-                double nh3  = comp.path("nh3").asDouble();
-                double no   = comp.path("no").asDouble();
-
-                Map<String, Double> sub = new HashMap<>();
-                if (pm25 > 0) sub.put("pm25", calcPm25(pm25));
-                if (pm10 > 0) sub.put("pm10", calcPm10(pm10));
-                if (no2  > 0) sub.put("no2",  calcNo2(no2));
-                if (o3   > 0) sub.put("o3",   calcO3(o3));
-                if (co   > 0) sub.put("co",   calcCo(co));
-                if (so2  > 0) sub.put("so2",  calcSo2(so2));
-
-                int aqi = sub.isEmpty() ? 0 : (int) Math.round(Collections.max(sub.values()));
-
-                Map<String, Object> reading = new LinkedHashMap<>();
-                reading.put("dt",   dt);
-                reading.put("pm25", pm25);
-                reading.put("pm10", pm10);
-                reading.put("no2",  no2);
-                reading.put("o3",   o3);
-                reading.put("co",   co);
-                reading.put("so2",  so2);
-                reading.put("nh3",  nh3);
-                reading.put("no",   no);
-                reading.put("aqi",  aqi);
-                readings.add(reading);
+            // Served from the reading store; only hours it has never seen go upstream
+            List<PollutionSample> list = readingStore.range(lat, lon, start, end, (from, to) ->
+                    fetch(OwmEndpoint.AIR_POLLUTION_HISTORY, Workload.HISTORY,
+                            Map.of("lat", lat, "lon", lon, "start", from, "end", to), OwmJsonDecoder::pollution));
+
+            int[] aqi = batchAqi(list);
+            List<HistoryPoint> readings = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                PollutionSample item = list.get(i);
+                readings.add(new HistoryPoint(item.dt(), item.pm25(), item.pm10(), item.no2(), item.o3(),
+                        item.co(), item.so2(), item.nh3(), item.no(), aqi[i]));
             }
 
             return readings;
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to fetch AQI history: " + e.getMessage());
+            throw new RuntimeException("Failed to fetch AQI history: " + e.getMessage(), e);
         }
     }
 
     // ── Forecast ──────────────────────────────────────────────────
-    public Map<String, Object> getForecast(String city) {
-        try {
-            String geoUrl = "https://api.openweathermap.org/geo/1.0/direct?q="
-                    + city.replace(" ", "+") + "&limit=1&appid=" + owmKey;
-            JsonNode geoRoot = objectMapper.readTree(
-                    restTemplate.getForObject(geoUrl, String.class));
-
-            if (!geoRoot.isArray() || geoRoot.size() == 0)
-                throw new RuntimeException("City not found: " + city);
-
-            double lat = geoRoot.get(0).path("lat").asDouble();
-            double lon = geoRoot.get(0).path("lon").asDouble();
-            String cityName = geoRoot.get(0).path("name").asText(city);
+    public ForecastReport getForecast(String city) {
+        return getForecast(city, Workload.INTERACTIVE);
+    }
 
-            return fetchForecastData(lat, lon, cityName);
+    public ForecastReport getForecast(String city, Workload workload) {
+        try {
+            GeoLocation loc = resolveCity(city, workload);
+            return fetchForecastData(loc.lat(), loc.lon(), CompletableFuture.completedFuture(loc.name()), workload);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch forecast: " + e.getMessage());
+            throw new RuntimeException("Failed to fetch forecast: " + e.getMessage(), e);
         }
     }
 
-    public Map<String, Object> getForecastByCoords(double lat, double lon) {
+    public ForecastReport getForecastByCoords(double lat, double lon) {
+        return getForecastByCoords(lat, lon, Workload.INTERACTIVE);
+    }
+
+    public ForecastReport getForecastByCoords(double lat, double lon, Workload workload) {
         try {
-            String reverseUrl = "https://api.openweathermap.org/geo/1.0/reverse?lat="
-                    + lat + "&lon=" + lon + "&limit=1&appid=" + owmKey;
-            JsonNode reverseRoot = objectMapper.readTree(
-                    restTemplate.getForObject(reverseUrl, String.class));
-            String cityName = (reverseRoot.isArray() && reverseRoot.size() > 0)
-                    ? reverseRoot.get(0).path("name").asText("Your Location")
-                    : "Your Location";
-            return fetchForecastData(lat, lon, cityName);
+            return fetchForecastData(lat, lon, reverseGeocodeAsync(lat, lon, workload), workload);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch forecast: " + e.getMessage());
+            throw new RuntimeException("Failed to fetch forecast: " + e.getMessage(), e);
         }
     }
 
-    private Map<String, Object> fetchForecastData(double lat, double lon, String cityName) throws Exception {
-        String forecastUrl = "https://api.openweathermap.org/data/2.5/forecast?lat="
-                + lat + "&lon=" + lon + "&units=metric&appid=" + owmKey;
-        JsonNode forecastRoot = objectMapper.readTree(
-                restTemplate.getForObject(forecastUrl, String.class));
-
-        String pollForecastUrl = "https://api.openweathermap.org/data/2.5/air_pollution/forecast?lat="
-                + lat + "&lon=" + lon + "&appid=" + owmKey;
-        JsonNode pollForecastRoot = objectMapper.readTree(
-                restTemplate.getForObject(pollForecastUrl, String.class));
-
-        Map<Long, Integer> pollutionByTime = new LinkedHashMap<>();
-        for (JsonNode item : pollForecastRoot.path("list")) {
-            long dt = item.path("dt").asLong();
-            JsonNode comp = item.path("components");
-            double pm25 = comp.path("pm2_5").asDouble();
-            double pm10 = comp.path("pm10").asDouble();
-            double no2  = comp.path("no2").asDouble();
-            double o3   = comp.path("o3").asDouble();
-            double co   = comp.path("co").asDouble();
-            double so2  = comp.path("so2").asDouble();
-
-            Map<String, Double> sub = new HashMap<>();
-            if (pm25 > 0) sub.put("pm25", calcPm25(pm25));
-            if (pm10 > 0) sub.put("pm10", calcPm10(pm10));
-            if (no2  > 0) sub.put("no2",  calcNo2(no2));
-            if (o3   > 0) sub.put("o3",   calcO3(o3));
-            if (co   > 0) sub.put("co",   calcCo(co));
-            if (so2  > 0) sub.put("so2",  calcSo2(so2));
-
-            int aqi = sub.isEmpty() ? 0 : (int) Math.round(Collections.max(sub.values()));
-            pollutionByTime.put(dt, aqi);
-        }
-
-        List<Map<String, Object>> entries = new ArrayList<>();
-        for (JsonNode item : forecastRoot.path("list")) {
-            long dt         = item.path("dt").asLong();
-            double temp     = item.path("main").path("temp").asDouble();
-            double humidity = item.path("main").path("humidity").asDouble();
-            String desc     = item.path("weather").get(0).path("description").asText();
-            String icon     = item.path("weather").get(0).path("icon").asText();
-            String dtTxt    = item.path("dt_txt").asText();
-            int aqi = findClosestAqi(dt, pollutionByTime);
-
-            Map<String, Object> entry = new LinkedHashMap<>();
-            entry.put("dt",       dt);
-            entry.put("dtTxt",    dtTxt);
-            entry.put("temp",     temp);
-            entry.put("humidity", humidity);
-            entry.put("desc",     desc);
-            entry.put("icon",     icon);
-            entry.put("aqi",      aqi);
-            entries.add(entry);
-        }
+    private ForecastReport fetchForecastData(double lat, double lon, CompletableFuture<String> cityNameF,
+                                             Workload workload) throws Exception {
+        CompletableFuture<List<ForecastSlot>> slotsF = fetchAsync(OwmEndpoint.FORECAST, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon, "units", "metric"), OwmJsonDecoder::forecast);
+        CompletableFuture<List<PollutionSample>> pollutionF = fetchAsync(OwmEndpoint.AIR_POLLUTION_FORECAST, workload, lat, lon,
+                Map.of("lat", lat, "lon", lon), OwmJsonDecoder::pollution);
+        Futures.awaitAll(cityNameF, slotsF, pollutionF);
+        return buildForecast(cityNameF.join(), slotsF.join(), pollutionF.join());
+    }
 
-        Map<String, Map<String, Object>> dailySummary = new LinkedHashMap<>();
-        for (Map<String, Object> entry : entries) {
-            String day  = ((String) entry.get("dtTxt")).substring(0, 10);
-            int aqi     = (int) entry.get("aqi");
-            double temp = (double) entry.get("temp");
-
-            dailySummary.computeIfAbsent(day, k -> {
-                Map<String, Object> d = new LinkedHashMap<>();
-                d.put("minAqi",  999); d.put("maxAqi",  0);
-                d.put("minTemp", 999.0); d.put("maxTemp", -999.0);
-                return d;
-            });
-
-            Map<String, Object> day_data = dailySummary.get(day);
-            if (aqi  < (int)   day_data.get("minAqi"))  day_data.put("minAqi",  aqi);
-            if (aqi  > (int)   day_data.get("maxAqi"))  day_data.put("maxAqi",  aqi);
-            if (temp < (double)day_data.get("minTemp")) day_data.put("minTemp", temp);
-            if (temp > (double)day_data.get("maxTemp")) day_data.put("maxTemp", temp);
+    private static ForecastReport buildForecast(String cityName, List<ForecastSlot> forecastSlots,
+                                                List<PollutionSample> pollForecast) {
+        long[] pollTimes = new long[pollForecast.size()];
+        for (int i = 0; i < pollTimes.length; i++) pollTimes[i] = pollForecast.get(i).dt();
+        AqiSeries pollution = AqiSeries.of(pollTimes, batchAqi(pollForecast));
+
+        // Weather slots are 3-hourly, pollution hourly: align them in one merge pass
+        long[] slotTimes = new long[forecastSlots.size()];
+        for (int i = 0; i < slotTimes.length; i++) slotTimes[i] = forecastSlots.get(i).dt();
+        int[] slotAqi = new int[slotTimes.length];
+        pollution.alignTo(slotTimes, slotAqi);
+
+        List<ForecastEntry> entries = new ArrayList<>(forecastSlots.size());
+        for (int i = 0; i < slotTimes.length; i++) {
+            ForecastSlot item = forecastSlots.get(i);
+            entries.add(new ForecastEntry(item.dt(), item.dtTxt(), item.temp(), item.humidity(),
+                    item.description(), item.icon(), slotAqi[i]));
         }
 
-        Map<String, Object> result = new LinkedHashMap<>();
-        result.put("city",         cityName);
-        result.put("entries",      entries);
-        result.put("dailySummary", dailySummary);
-        return result;
+        return new ForecastReport(cityName, entries, summarizeDays(entries));
     }
 
-    private int findClosestAqi(long dt, Map<Long, Integer> pollutionByTime) {
-        long closest = -1;
-        long minDiff = Long.MAX_VALUE;
-        for (long ts : pollutionByTime.keySet()) {
-            long diff = Math.abs(ts - dt);
-            if (diff < minDiff) { minDiff = diff; closest = ts; }
+    // Entries arrive in time order, so each day is one contiguous run
+    static Map<String, DailySummary> summarizeDays(List<ForecastEntry> entries) {
+        Map<String, DailySummary> dailySummary = new LinkedHashMap<>();
+        String day = null;
+        int minAqi = 999, maxAqi = 0;
+        double minTemp = 999.0, maxTemp = -999.0;
+
+        for (ForecastEntry entry : entries) {
+            String entryDay = entry.dtTxt().substring(0, 10);
+            if (!entryDay.equals(day)) {
+                if (day != null) dailySummary.merge(day,
+                        new DailySummary(minAqi, maxAqi, minTemp, maxTemp), AqiService::widen);
+                day = entryDay;
+                minAqi = 999; maxAqi = 0;
+                minTemp = 999.0; maxTemp = -999.0;
+            }
+            minAqi  = Math.min(minAqi,  entry.aqi());
+            maxAqi  = Math.max(maxAqi,  entry.aqi());
+            minTemp = Math.min(minTemp, entry.temp());
+            maxTemp = Math.max(maxTemp, entry.temp());
         }
-        return closest == -1 ? 0 : pollutionByTime.get(closest);
+        if (day != null) dailySummary.merge(day,
+                new DailySummary(minAqi, maxAqi, minTemp, maxTemp), AqiService::widen);
+        return dailySummary;
+    }
+
+    private static DailySummary widen(DailySummary a, DailySummary b) {
+        return new DailySummary(Math.min(a.minAqi(), b.minAqi()), Math.max(a.maxAqi(), b.maxAqi()),
+                Math.min(a.minTemp(), b.minTemp()), Math.max(a.maxTemp(), b.maxTemp()));
     }
 
     // ── All pollutants for a city ─────────────────────────────────
-    public Map<String, Object> getPollutants(String city) {
+    public Pollutants getPollutants(String city) {
         try {
-            String geoUrl = "https://api.openweathermap.org/geo/1.0/direct?q="
-                    + city.replace(" ", "+") + "&limit=1&appid=" + owmKey;
-            JsonNode geoRoot = objectMapper.readTree(
-                    restTemplate.getForObject(geoUrl, String.class));
-
-            if (!geoRoot.isArray() || geoRoot.size() == 0)
-                throw new RuntimeException("City not found: " + city);
-
-            double lat = geoRoot.get(0).path("lat").asDouble();
-            double lon = geoRoot.get(0).path("lon").asDouble();
-
-            String pollutionUrl = "https://api.openweathermap.org/data/2.5/air_pollution?lat="
-                    + lat + "&lon=" + lon + "&appid=" + owmKey;
-            JsonNode pollRoot = objectMapper.readTree(
-                    restTemplate.getForObject(pollutionUrl, String.class));
-            JsonNode comp = pollRoot.path("list").get(0).path("components");
-
-            Map<String, Object> result = new LinkedHashMap<>();
-            result.put("city", geoRoot.get(0).path("name").asText(city));
-            result.put("pm25", comp.path("pm2_5").asDouble());
-            result.put("pm10", comp.path("pm10").asDouble());
-            result.put("no2",  comp.path("no2").asDouble());
-            result.put("o3",   comp.path("o3").asDouble());
-            result.put("co",   comp.path("co").asDouble());
-            result.put("so2",  comp.path("so2").asDouble());
-            result.put("nh3",  comp.path("nh3").asDouble());
-            result.put("no",   comp.path("no").asDouble());
-            return result;
+            GeoLocation loc = resolveCity(city, Workload.INTERACTIVE);
+            double lat = loc.lat();
+            double lon = loc.lon();
+
+            List<PollutionSample> samples = fetchCoalesced(OwmEndpoint.AIR_POLLUTION, Workload.INTERACTIVE, lat, lon,
+                    Map.of("lat", lat, "lon", lon), OwmJsonDecoder::pollution);
+            readingStore.append(lat, lon, samples);
+            PollutionSample comp = latestSample(samples);
+
+            return new Pollutants(loc.name(), comp.pm25(), comp.pm10(), comp.no2(), comp.o3(),
+                    comp.co(), comp.so2(), comp.nh3(), comp.no());
         } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch pollutants: " + e.getMessage());
+            throw new RuntimeException("Failed to fetch pollutants: " + e.getMessage(), e);
         }
     }
 
     // ── India cities AQI (parallel fetch) ────────────────────────
-    public List<Map<String, Object>> getIndiaCities() {
-        ExecutorService executor = Executors.newFixedThreadPool(8);
-        List<Future<Map<String, Object>>> futures = new ArrayList<>();
+    public List<CityCard> getIndiaCities() {
+        List<Future<CityCard>> futures = new ArrayList<>();
 
         for (String city : INDIA_CITIES) {
-            futures.add(executor.submit(() -> {
+            futures.add(fanOut.submit(Workload.BULK, () -> {
                 try {
-                    Map<String, Object> data = getAqiByCity(city);
-                    Map<String, Object> card = new LinkedHashMap<>();
-                    card.put("city",  data.get("city"));
-                    card.put("aqi",   data.get("aqi"));
-                    card.put("pm25",  data.get("pm25"));
-                    card.put("pm10",  data.get("pm10"));
-                    card.put("temp",  data.get("temperature"));
-                    return card;
+                    return CityCard.of(getAqiByCity(city, Workload.BULK));
                 } catch (Exception e) {
-                    Map<String, Object> err = new LinkedHashMap<>();
-                    err.put("city",  city);
-                    err.put("aqi",   -1);
-                    err.put("error", e.getMessage());
-                    return err;
+                    return CityCard.failed(city, e.getMessage());
                 }
             }));
         }
 
-        executor.shutdown();
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (Future<Map<String, Object>> f : futures) {
+        List<CityCard> results = new ArrayList<>();
+        for (Future<CityCard> f : futures) {
             try { results.add(f.get(10, TimeUnit.SECONDS)); }
-            catch (Exception e) { /* skip failed city */ }
+            catch (Exception e) { f.cancel(true); /* skip failed city */ }
         }
 
-        results.sort((a, b) -> {
-            int aqiA = (int) a.getOrDefault("aqi", -1);
-            int aqiB = (int) b.getOrDefault("aqi", -1);
-            return Integer.compare(aqiB, aqiA);
-        });
-
+        results.sort((a, b) -> Integer.compare(b.aqi(), a.aqi()));
         return results;
     }
 
     // ── City search suggestions ───────────────────────────────────
-    public List<Map<String, Object>> searchCities(String query) {
+    public List<CitySuggestion> searchCities(String query) {
+        List<CitySuggestion> local = cityCatalog.search(query, 5);
+        if (!cityCatalog.prefix(query, 1).isEmpty()) return local;
+
+        // No known place starts with the query: it is either a typo of one
+        // (fuzzy catalog hits) or a place outside the catalog (OWM), so ask
+        // OWM and list its exact matches ahead of the near misses.
+        List<CitySuggestion> suggestions = new ArrayList<>();
         try {
-            String url = "https://api.openweathermap.org/geo/1.0/direct?q="
-                    + query.replace(" ", "+") + "&limit=5&appid=" + owmKey;
-            JsonNode root = objectMapper.readTree(restTemplate.getForObject(url, String.class));
-
-            List<Map<String, Object>> suggestions = new ArrayList<>();
-            for (JsonNode node : root) {
-                String name    = node.path("name").asText();
-                String country = node.path("country").asText();
-                String state   = node.path("state").asText("");
-                double lat     = node.path("lat").asDouble();
-                double lon     = node.path("lon").asDouble();
+            List<GeoPlace> places = fetch(OwmEndpoint.GEO_DIRECT, Workload.INTERACTIVE,
+                    Map.of("q", query, "limit", 5), OwmJsonDecoder::places);
+
+            for (GeoPlace place : places) {
+                String name    = Objects.requireNonNullElse(place.name(), "");
+                String country = Objects.requireNonNullElse(place.country(), "");
+                String state   = Objects.requireNonNullElse(place.state(), "");
+                double lat     = place.lat();
+                double lon     = place.lon();
 
                 String display = name
                         + (state.isEmpty() ? "" : ", " + state)
                         + ", " + country;
 
-                Map<String, Object> s = new LinkedHashMap<>();
-                s.put("display", display);
-                s.put("city",    name);
-                s.put("lat",     lat);
-                s.put("lon",     lon);
-                suggestions.add(s);
+                suggestions.add(new CitySuggestion(display, name, lat, lon));
             }
-            return suggestions;
         } catch (Exception e) {
-            return new ArrayList<>();
+            // Fall back to the near misses alone
+        }
+
+        for (CitySuggestion s : local) {
+            if (suggestions.size() == 5) break;
+            if (suggestions.stream().noneMatch(o -> o.city().equalsIgnoreCase(s.city()))) suggestions.add(s);
         }
+        return suggestions;
     }
 
     // ── Wind direction helper ─────────────────────────────────────
-    private String degToCompass(double deg) {
+    private static String degToCompass(double deg) {
         String[] dirs = {"N","NE","E","SE","S","SW","W","NW"};
         return dirs[(int)Math.round(deg / 45) % 8];
     }
 
     // ── CPCB AQI Calculations ─────────────────────────────────────
-    private double calcPm25(double cp) {
-        double[][] t = {{0,30,0,50},{30,60,51,100},{60,90,101,200},
-                {90,120,201,300},{120,250,301,400},{250,500,401,500}};
-        return interpolate(cp, t);
-    }
-    private double calcPm10(double cp) {
-        double[][] t = {{0,50,0,50},{50,100,51,100},{100,250,101,200},
-                {250,350,201,300},{350,430,301,400},{430,600,401,500}};
-        return interpolate(cp, t);
-    }
-    private double calcNo2(double cp) {
-        double[][] t = {{0,40,0,50},{40,80,51,100},{80,180,101,200},
-                {180,280,201,300},{280,400,301,400},{400,800,401,500}};
-        return interpolate(cp, t);
-    }
-    private double calcO3(double cp) {
-        double[][] t = {{0,50,0,50},{50,100,51,100},{100,168,101,200},
-                {168,208,201,300},{208,748,301,400},{748,1000,401,500}};
-        return interpolate(cp, t);
-    }
-    private double calcCo(double cp) {
-        cp = cp / 1000.0;
-        double[][] t = {{0,1.0,0,50},{1.0,2.0,51,100},{2.0,10,101,200},
-                {10,17,201,300},{17,34,301,400},{34,50,401,500}};
-        return interpolate(cp, t);
-    }
-    private double calcSo2(double cp) {
-        double[][] t = {{0,40,0,50},{40,80,51,100},{80,380,101,200},
-                {380,800,201,300},{800,1600,301,400},{1600,2100,401,500}};
-        return interpolate(cp, t);
-    }
-    private double interpolate(double cp, double[][] table) {
-        for (double[] row : table) {
-            if (cp <= row[1])
-                return ((row[3]-row[2])/(row[1]-row[0])) * (cp-row[0]) + row[2];
+    // Transposes samples into per-pollutant columns for the batch engine.
+    private static int[] batchAqi(List<PollutionSample> samples) {
+        int n = samples.size();
+        double[] pm25 = new double[n], pm10 = new double[n], no2 = new double[n];
+        double[] o3   = new double[n], co   = new double[n], so2 = new double[n];
+        for (int i = 0; i < n; i++) {
+            PollutionSample s = samples.get(i);
+            pm25[i] = s.pm25(); pm10[i] = s.pm10(); no2[i] = s.no2();
+            o3[i]   = s.o3();   co[i]   = s.co();   so2[i] = s.so2();
         }
-        return 500;
+        int[] aqi = new int[n];
+        CpcbAqi.aqi(pm25, pm10, no2, o3, co, so2, aqi, n);
+        return aqi;
     }
 }
@@ -0,0 +1,150 @@
+package com.example.aqi_backend.service;
+
+import com.example.aqi_backend.cache.Cached;
+import com.example.aqi_backend.concurrent.FanOutExecutor;
+import com.example.aqi_backend.model.AqiReading;
+import com.example.aqi_backend.model.BatchQuery;
+import com.example.aqi_backend.model.BatchResult;
+import com.example.aqi_backend.quota.Workload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Current AQI for many places at once (/api/aqi/batch).
+ *
+ * Items are deduplicated by BatchQuery.key(); every distinct place is looked
+ * up once and its outcome is reported for each item that asked for it.
+ * Readings CachedAqiService already holds (fresh or stale) are reported
+ * first; the rest are fetched through it on the shared fan-out pool with at most aqi.batch.parallelism lookups of
+ * one batch in flight, so a single large batch cannot take the whole pool.
+ * Lookups still queued when aqi.batch.timeout runs out are cancelled.
+ */
+@Service
+public class BatchAqiService {
+
+    private record Outcome(String key, AqiReading reading, boolean stale, String error) { }
+
+    private final CachedAqiService cachedAqiService;
+    private final FanOutExecutor fanOut;
+    private final int maxItems;
+    private final int parallelism;
+    private final Duration timeout;
+
+    public BatchAqiService(CachedAqiService cachedAqiService,
+                           FanOutExecutor fanOut,
+                           @Value("${aqi.batch.max-items:100}") int maxItems,
+                           @Value("${aqi.batch.parallelism:4}") int parallelism,
+                           @Value("${aqi.batch.timeout:25s}") Duration timeout) {
+        if (parallelism <= 0) throw new IllegalArgumentException("aqi.batch.parallelism must be > 0");
+        this.cachedAqiService = cachedAqiService;
+        this.fanOut           = fanOut;
+        this.maxItems         = maxItems;
+        this.parallelism      = parallelism;
+        this.timeout          = timeout;
+    }
+
+    /** Rejects a batch that is empty or larger than aqi.batch.max-items. */
+    public void validate(List<BatchQuery> queries) {
+        if (queries == null || queries.isEmpty()) {
+            throw new IllegalArgumentException("Batch is empty");
+        }
+        if (queries.size() > maxItems) {
+            throw new IllegalArgumentException("Batch has " + queries.size() + " items; the limit is " + maxItems);
+        }
+    }
+
+    /** All results, in request order. */
+    public List<BatchResult> getBatch(List<BatchQuery> queries) {
+        BatchResult[] results = new BatchResult[queries.size()];
+        run(queries, r -> results[r.index()] = r);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Looks up every item and hands each result to sink as soon as it is
+     * known: invalid items and cache hits first, then fetched places in
+     * completion order. sink is only called from the calling thread.
+     */
+    public void run(List<BatchQuery> queries, Consumer<BatchResult> sink) {
+        validate(queries);
+
+        Map<String, List<Integer>> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            BatchQuery q = queries.get(i);
+            String key = q == null ? null : q.key();
+            if (key == null) {
+                sink.accept(BatchResult.failed(i, q, "Each item needs a city or a valid lat and lon"));
+                continue;
+            }
+            byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        Deque<String> pending = new ArrayDeque<>();
+        // Copy the keys: emitting a cached reading removes its key from byKey
+        for (String key : new ArrayList<>(byKey.keySet())) {
+            BatchQuery q = queries.get(byKey.get(key).get(0));
+            Cached<AqiReading> cached = cachedAqiService.getCachedAqi(q);
+            if (cached != null) emit(new Outcome(key, cached.value(), cached.stale(), null), byKey, queries, sink);
+            else pending.add(key);
+        }
+
+        LinkedBlockingQueue<Outcome> done = new LinkedBlockingQueue<>();
+        List<CompletableFuture<Outcome>> lookups = new ArrayList<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int inFlight = 0;
+        while (!pending.isEmpty() || inFlight > 0) {
+            while (!pending.isEmpty() && inFlight < parallelism) {
+                String key = pending.poll();
+                BatchQuery q = queries.get(byKey.get(key).get(0));
+                CompletableFuture<Outcome> lookup = fanOut.supplyAsync(Workload.BULK, () -> lookup(key, q));
+                lookup.thenAccept(done::add);
+                lookups.add(lookup);
+                inFlight++;
+            }
+            Outcome o;
+            try {
+                o = done.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                o = null;
+            }
+            if (o == null) break;
+            inFlight--;
+            emit(o, byKey, queries, sink);
+        }
+
+        // Out of time: a cancelled lookup that has not started never runs, and whatever has not been reported yet fails
+        for (CompletableFuture<Outcome> lookup : lookups) lookup.cancel(false);
+        for (String key : new ArrayList<>(byKey.keySet())) {
+            emit(new Outcome(key, null, false, "Batch timed out"), byKey, queries, sink);
+        }
+    }
+
+    private Outcome lookup(String key, BatchQuery q) {
+        try {
+            Cached<AqiReading> cached = cachedAqiService.getAqi(q, Workload.BULK);
+            return new Outcome(key, cached.value(), cached.stale(), null);
+        } catch (Exception e) {
+            return new Outcome(key, null, false, e.getMessage());
+        }
+    }
+
+    // Reports an outcome for every item with that key, once
+    private static void emit(Outcome o, Map<String, List<Integer>> byKey, List<BatchQuery> queries,
+                             Consumer<BatchResult> sink) {
+        List<Integer> indexes = byKey.remove(o.key());
+        if (indexes == null) return;
+        for (int i : indexes) {
+            sink.accept(o.reading() != null
+                    ? BatchResult.of(i, queries.get(i), o.reading(), o.stale())
+                    : BatchResult.failed(i, queries.get(i), o.error()));
+        }
+    }
+}
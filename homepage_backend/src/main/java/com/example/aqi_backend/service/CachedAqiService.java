@@ -0,0 +1,135 @@
+package com.example.aqi_backend.service;
+
+import com.example.aqi_backend.cache.Cached;
+import com.example.aqi_backend.cache.StaleWhileRevalidateCache;
+import com.example.aqi_backend.concurrent.FanOutExecutor;
+import com.example.aqi_backend.model.AqiReading;
+import com.example.aqi_backend.model.BatchQuery;
+import com.example.aqi_backend.model.CityCard;
+import com.example.aqi_backend.model.Dashboard;
+import com.example.aqi_backend.model.ForecastReport;
+import com.example.aqi_backend.model.PlaceKeys;
+import com.example.aqi_backend.quota.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Stale-while-revalidate front for the per-place AqiService lookups that
+ * controllers and batches serve.
+ *
+ * A response younger than aqi.swr.fresh is served from memory. An older one,
+ * up to aqi.swr.max-stale, is served at once marked stale while one
+ * background refresh runs, so an OWM outage or slowdown costs callers
+ * staleness rather than latency. Places are keyed by normalized city name
+ * or by coordinates rounded to 3 decimals (~110 m). The /api/cities/india
+ * list is one more entry, refreshed as a whole.
+ *
+ * The map refresh calls AqiService directly; it always wants new readings.
+ */
+@Service
+public class CachedAqiService {
+
+    private final AqiService aqiService;
+    private final StaleWhileRevalidateCache<String, AqiReading> readings;
+    private final StaleWhileRevalidateCache<String, ForecastReport> forecasts;
+    private final StaleWhileRevalidateCache<String, Dashboard> dashboards;
+    private final StaleWhileRevalidateCache<String, List<CityCard>> indiaCities;
+
+    public CachedAqiService(AqiService aqiService,
+                            FanOutExecutor fanOut,
+                            MeterRegistry meterRegistry,
+                            @Value("${aqi.swr.max-size:5000}") int maxSize,
+                            @Value("${aqi.swr.fresh:2m}") Duration fresh,
+                            @Value("${aqi.swr.max-stale:1h}") Duration maxStale) {
+        this.aqiService = aqiService;
+        // Background refreshes run in their own bulkhead, which drops them when it is full
+        Executor refreshes = task -> fanOut.execute(Workload.REFRESH, task);
+        this.readings   = new StaleWhileRevalidateCache<String, AqiReading>(maxSize, fresh, maxStale, refreshes)
+                .bindTo(meterRegistry, "swr-aqi");
+        this.forecasts  = new StaleWhileRevalidateCache<String, ForecastReport>(maxSize, fresh, maxStale, refreshes)
+                .bindTo(meterRegistry, "swr-forecast");
+        this.dashboards = new StaleWhileRevalidateCache<String, Dashboard>(maxSize, fresh, maxStale, refreshes)
+                .bindTo(meterRegistry, "swr-dashboard");
+        this.indiaCities = new StaleWhileRevalidateCache<String, List<CityCard>>(1, fresh, maxStale, refreshes)
+                .bindTo(meterRegistry, "swr-cities");
+    }
+
+    // Loads under a given workload: the caller's on a miss, REFRESH for a background revalidation
+    private interface Loader<V> {
+        V load(Workload workload) throws Exception;
+    }
+
+    public Cached<AqiReading> getAqiByCity(String city) {
+        return get(readings, cityKey(city), Workload.INTERACTIVE, w -> aqiService.getAqiByCity(city, w));
+    }
+
+    public Cached<AqiReading> getAqiByCoords(double lat, double lon) {
+        return get(readings, coordsKey(lat, lon), Workload.INTERACTIVE, w -> aqiService.getAqiByCoords(lat, lon, w));
+    }
+
+    /**
+     * Reading for one batch item, loaded on a miss under the given workload.
+     * The item must have a key (see BatchQuery.key()).
+     */
+    public Cached<AqiReading> getAqi(BatchQuery q, Workload workload) {
+        return get(readings, q.key(), workload, batchLoader(q));
+    }
+
+    /** Reading for one batch item if one is cached, else null; never waits for OWM. */
+    public Cached<AqiReading> getCachedAqi(BatchQuery q) {
+        Loader<AqiReading> loader = batchLoader(q);
+        return readings.getIfPresent(q.key(), () -> loader.load(Workload.REFRESH));
+    }
+
+    private Loader<AqiReading> batchLoader(BatchQuery q) {
+        return q.hasCity()
+                ? w -> aqiService.getAqiByCity(q.city().trim(), w)
+                : w -> aqiService.getAqiByCoords(q.lat(), q.lon(), w);
+    }
+
+    public Cached<ForecastReport> getForecast(String city) {
+        return get(forecasts, cityKey(city), Workload.INTERACTIVE, w -> aqiService.getForecast(city, w));
+    }
+
+    public Cached<ForecastReport> getForecastByCoords(double lat, double lon) {
+        return get(forecasts, coordsKey(lat, lon), Workload.INTERACTIVE, w -> aqiService.getForecastByCoords(lat, lon, w));
+    }
+
+    public Cached<Dashboard> getDashboard(String city) {
+        return get(dashboards, cityKey(city), Workload.INTERACTIVE, w -> aqiService.getDashboard(city, w));
+    }
+
+    public Cached<Dashboard> getDashboardByCoords(double lat, double lon) {
+        return get(dashboards, coordsKey(lat, lon), Workload.INTERACTIVE, w -> aqiService.getDashboardByCoords(lat, lon, w));
+    }
+
+    // The city cards are always fetched as bulk work, also when revalidating
+    public Cached<List<CityCard>> getIndiaCities() {
+        return get(indiaCities, "india", Workload.BULK, w -> aqiService.getIndiaCities());
+    }
+
+    // AqiService already reports failures as RuntimeExceptions with a readable message
+    private static <V> Cached<V> get(StaleWhileRevalidateCache<String, V> cache, String key,
+                                     Workload workload, Loader<V> loader) {
+        try {
+            return cache.get(key, () -> loader.load(workload), () -> loader.load(Workload.REFRESH));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private static String cityKey(String city) {
+        return PlaceKeys.city(city);
+    }
+
+    private static String coordsKey(double lat, double lon) {
+        return PlaceKeys.coords(lat, lon);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.aqi_backend.service;
+
+import com.example.aqi_backend.concurrent.FanOutExecutor;
+import com.example.aqi_backend.model.AqiReading;
+import com.example.aqi_backend.model.MapCity;
+import com.example.aqi_backend.model.MapSnapshot;
+import com.example.aqi_backend.quota.Workload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the /api/aqi/map markers in memory.
+ *
+ * A scheduled job re-fetches every entry in CITIES and publishes the result
+ * as one immutable MapSnapshot, so readers never see a half-built list and
+ * never wait on OWM. A refresh waits at most aqi.map.refresh.timeout for
+ * all cities together; each OWM call is bounded by aqi.upstream.deadline. A
+ * city that fails or is not back in time keeps its previous reading, marked
+ * stale.
+ *
+ * Listeners (the /api/aqi/map/stream clients) are told about each city as
+ * soon as its reading arrives, and again when a whole refresh is published.
+ *
+ * Metrics: aqi.map.refresh (duration of a full refresh),
+ * aqi.map.refresh.cities{result=refreshed|failed}, aqi.map.snapshot.age
+ * (seconds) and aqi.map.listeners.
+ */
+@Service
+public class MapSnapshotService {
+
+    private final AqiService aqiService;
+    private final FanOutExecutor fanOut;
+    private final Duration refreshTimeout;
+    private final AtomicReference<MapSnapshot> snapshot = new AtomicReference<>(MapSnapshot.EMPTY);
+    private final CompletableFuture<MapSnapshot> firstSnapshot = new CompletableFuture<>();
+
+    /**
+     * Receives map updates. Called from the map refresh threads, so an
+     * implementation that does I/O should only hand the update off.
+     */
+    public interface Listener {
+        void city(MapCity city);
+        void refreshed(MapSnapshot snapshot);
+    }
+
+    // Newest reading per city, including ones from a refresh still in progress
+    private final ConcurrentHashMap<String, MapCity> latest = new ConcurrentHashMap<>();
+    private final Set<Listener> listeners = ConcurrentHashMap.newKeySet();
+
+    private final Timer refreshTimer;
+    private final Counter citiesRefreshed;
+    private final Counter citiesFailed;
+
+    public MapSnapshotService(AqiService aqiService, FanOutExecutor fanOut, MeterRegistry meterRegistry,
+                              @Value("${aqi.map.refresh.timeout:60s}") Duration refreshTimeout) {
+        this.aqiService     = aqiService;
+        this.fanOut         = fanOut;
+        this.refreshTimeout = refreshTimeout;
+
+        this.refreshTimer    = Timer.builder("aqi.map.refresh").register(meterRegistry);
+        this.citiesRefreshed = Counter.builder("aqi.map.refresh.cities").tag("result", "refreshed").register(meterRegistry);
+        this.citiesFailed    = Counter.builder("aqi.map.refresh.cities").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("aqi.map.snapshot.age", snapshot, s -> s.get() == MapSnapshot.EMPTY ? Double.NaN : s.get().ageSeconds())
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("aqi.map.listeners", listeners, Set::size).register(meterRegistry);
+    }
+
+    private static final Object[][] CITIES = {
+        // North India
+        {28.6139, 77.2090, "Delhi"},
+        {28.4595, 77.0266, "Gurugram"},
+        {28.7041, 77.1025, "Delhi North"},
+        {26.8467, 80.9462, "Lucknow"},
+        {25.3176, 82.9739, "Varanasi"},
+        {26.9124, 75.7873, "Jaipur"},
+        {30.7333, 76.7794, "Chandigarh"},
+        {27.1767, 78.0081, "Agra"},
+        {24.5854, 73.7125, "Udaipur"},
+        {27.8974, 78.0880, "Aligarh"},
+        {26.4499, 80.3319, "Kanpur"},
+        {29.9457, 78.1642, "Haridwar"},
+        {30.3165, 78.0322, "Dehradun"},
+        {31.1048, 77.1734, "Shimla"},
+        {32.7266, 74.8570, "Jammu"},
+        {28.0229, 73.3119, "Bikaner"},
+        {25.1478, 75.8480, "Kota"},
+        {29.3909, 76.9635, "Panipat"},
+        // West India
+        {19.0760, 72.8777, "Mumbai"},
+        {23.0225, 72.5714, "Ahmedabad"},
+        {18.5204, 73.8567, "Pune"},
+        {21.1458, 79.0882, "Nagpur"},
+        {21.1702, 72.8311, "Surat"},
+        {22.3072, 73.1812, "Vadodara"},
+        {20.0059, 73.7797, "Nashik"},
+        {19.9975, 72.9189, "Bhiwandi"},
+        {22.9734, 78.6569, "Bhopal"},
+        {22.7196, 75.8577, "Indore"},
+        {21.7051, 72.9959, "Bhavnagar"},
+        {23.2599, 77.4126, "Bhopal East"},
+        // East India
+        {22.5726, 88.3639, "Kolkata"},
+        {20.2961, 85.8245, "Bhubaneswar"},
+        {23.3441, 85.3096, "Ranchi"},
+        {25.5941, 85.1376, "Patna"},
+        {26.1445, 91.7362, "Guwahati"},
+        {22.8046, 86.2029, "Jamshedpur"},
+        {23.6693, 86.1511, "Dhanbad"},
+        {21.2514, 81.6296, "Raipur"},
+        // South India
+        {13.0827, 80.2707, "Chennai"},
+        {12.9716, 77.5946, "Bengaluru"},
+        {17.3850, 78.4867, "Hyderabad"},
+        {11.0168, 76.9558, "Coimbatore"},
+        {9.9252,  78.1198, "Madurai"},
+        {10.7905, 78.7047, "Tiruchirappalli"},
+        {13.6288, 79.4192, "Tirupati"},
+        {16.3067, 80.4365, "Vijayawada"},
+        {17.6868, 83.2185, "Visakhapatnam"},
+        {15.3173, 75.7139, "Hubli"},
+        {12.2958, 76.6394, "Mysuru"},
+        {11.6643, 78.1460, "Salem"},
+        // Kerala
+        {9.9312,  76.2673, "Kochi"},
+        {8.5241,  76.9366, "Thiruvananthapuram"},
+        {11.2588, 75.7804, "Kozhikode"},
+        {8.8932,  76.6141, "Kollam"},
+        {10.5276, 76.2144, "Thrissur"},
+        {11.8745, 75.3704, "Kannur"},
+        {9.5916,  76.5222, "Kottayam"},
+        {10.0004, 76.3637, "Aluva"},
+        {9.1858,  76.5164, "Pathanamthitta"},
+        {11.5854, 76.0845, "Malappuram"},
+    };
+
+    /** Latest published snapshot; EMPTY until the first refresh completes. */
+    public MapSnapshot current() {
+        return snapshot.get();
+    }
+
+    /** Latest snapshot, waiting up to {@code timeout} if none has been published yet. */
+    public MapSnapshot current(Duration timeout) {
+        MapSnapshot s = snapshot.get();
+        if (s != MapSnapshot.EMPTY) return s;
+        try {
+            return firstSnapshot.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            return snapshot.get();
+        }
+    }
+
+    /**
+     * Registers a listener. Returns the action that unregisters it; call
+     * replay afterwards if the listener needs the cities known so far.
+     */
+    public Runnable subscribe(Listener listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Sends the newest reading of every city to the listener. Subscribe
+     * first: a city updated during the replay is then sent twice rather
+     * than missed.
+     */
+    public void replay(Listener listener) {
+        for (MapCity c : latest.values()) listener.city(c);
+    }
+
+    @Scheduled(initialDelayString = "${aqi.map.refresh.initial-delay:0}",
+               fixedDelayString   = "${aqi.map.refresh.interval:600000}")
+    public void refresh() {
+        long start = System.nanoTime();
+        Map<String, MapCity> previous = new HashMap<>();
+        for (MapCity c : snapshot.get().cities()) previous.put(c.name(), c);
+
+        List<CompletableFuture<MapCity>> futures = new ArrayList<>(CITIES.length);
+        for (Object[] cityInfo : CITIES) {
+            MapCity old = previous.get((String) cityInfo[2]);
+            futures.add(fanOut.supplyAsync(Workload.MAP_REFRESH, () -> fetchCity(cityInfo, old))
+                    .whenComplete((city, e) -> { if (city != null) publish(city); }));
+        }
+
+        // One deadline for the whole run; failures show up per city below
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .orTimeout(refreshTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> null)
+                .join();
+
+        List<MapCity> cities = new ArrayList<>(CITIES.length);
+        int refreshed = 0;
+        for (int i = 0; i < CITIES.length; i++) {
+            CompletableFuture<MapCity> f = futures.get(i);
+            if (f.isDone() && !f.isCompletedExceptionally()) {
+                cities.add(f.join());
+                refreshed++;
+            } else {
+                // Still running calls finish within the upstream deadline and reach listeners then
+                MapCity old = previous.get((String) CITIES[i][2]);
+                if (old != null) {
+                    cities.add(old.markStale());
+                    publish(old.markStale());
+                }
+            }
+        }
+
+        citiesRefreshed.increment(refreshed);
+        citiesFailed.increment(CITIES.length - refreshed);
+        refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        MapSnapshot last = snapshot.get();
+        Instant now = Instant.now();
+        MapSnapshot next = new MapSnapshot(now, cities.equals(last.cities()) ? last.modifiedAt() : now, cities);
+        snapshot.set(next);
+        firstSnapshot.complete(next);
+        for (Listener l : listeners) l.refreshed(next);
+    }
+
+    private void publish(MapCity city) {
+        latest.put(city.name(), city);
+        for (Listener l : listeners) l.city(city);
+    }
+
+    // Keeps the previous marker when the reading has not changed, so an unchanged map keeps its version
+    private MapCity fetchCity(Object[] cityInfo, MapCity previous) {
+        double lat  = (double) cityInfo[0];
+        double lon  = (double) cityInfo[1];
+        String name = (String) cityInfo[2];
+
+        AqiReading data = aqiService.getAqiByCoords(lat, lon, Workload.MAP_REFRESH);
+        MapCity city = new MapCity(name, lat, lon,
+                data.aqi(), data.pm25(), data.pm10(), data.temperature(),
+                Instant.now().getEpochSecond(),
+                false);
+        return city.sameReading(previous) && !previous.stale() ? previous : city;
+    }
+}
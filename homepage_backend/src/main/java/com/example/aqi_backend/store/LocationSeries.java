@@ -0,0 +1,165 @@
+package com.example.aqi_backend.store;
+
+import com.example.aqi_backend.client.PollutionSample;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * All segments of one location, indexed by segment start time.
+ *
+ * Data operations are synchronized on the instance and only touch local
+ * files. fillLock is separate and is held while an upstream fetch for a
+ * gap is in flight, so concurrent history requests for the same place
+ * fetch the gap once without blocking appends of current readings.
+ *
+ * latest is the high-watermark: the newest dt stored. The most recently
+ * read history window is kept in memory and new readings are merged into
+ * it, so repeated reads of the same window do not touch the files.
+ */
+final class LocationSeries {
+
+    private static final String SUFFIX = ".seg";
+
+    final ReentrantLock fillLock = new ReentrantLock();
+
+    private final Path dir;
+    private final long spanSeconds;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private long latest = Long.MIN_VALUE;
+    private long lastRefresh = Long.MIN_VALUE;
+
+    // Cached window: every stored reading with dt >= windowFrom, sorted by dt
+    private final ArrayList<PollutionSample> window = new ArrayList<>();
+    private long windowFrom = Long.MAX_VALUE;
+
+    private LocationSeries(Path dir, long spanSeconds) {
+        this.dir         = dir;
+        this.spanSeconds = spanSeconds;
+    }
+
+    static LocationSeries load(Path dir, long spanSeconds) throws IOException {
+        LocationSeries series = new LocationSeries(dir, spanSeconds);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    long start = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    Segment seg = Segment.open(file, start);
+                    series.segments.put(start, seg);
+                    series.latest = Math.max(series.latest, seg.latest());
+                }
+            }
+        }
+        return series;
+    }
+
+    synchronized int append(List<PollutionSample> samples) throws IOException {
+        Map<Long, List<PollutionSample>> bySegment = new TreeMap<>();
+        for (PollutionSample s : samples) {
+            bySegment.computeIfAbsent(segmentStart(s.dt()), k -> new ArrayList<>()).add(s);
+        }
+        int written = 0;
+        for (Map.Entry<Long, List<PollutionSample>> e : bySegment.entrySet()) {
+            List<PollutionSample> added = segment(e.getKey()).append(e.getValue());
+            for (PollutionSample s : added) {
+                latest = Math.max(latest, s.dt());
+                if (s.dt() >= windowFrom) insertIntoWindow(s);
+            }
+            written += added.size();
+        }
+        return written;
+    }
+
+    /** Newest dt stored, or Long.MIN_VALUE when the location has no readings yet. */
+    synchronized long latest() {
+        return latest;
+    }
+
+    /** True (and the refresh is recorded) if no refresh happened in the last minIntervalSeconds. */
+    synchronized boolean tryRefresh(long now, long minIntervalSeconds) {
+        if (lastRefresh != Long.MIN_VALUE && now - lastRefresh < minIntervalSeconds) return false;
+        lastRefresh = now;
+        return true;
+    }
+
+    /** Records that upstream has nothing for the hours in [from, to], so they are not asked for again. */
+    synchronized void markChecked(long from, long to) throws IOException {
+        for (long hour = ceilHour(from); hour <= to; hour += 3600) {
+            segment(segmentStart(hour)).markChecked(hour);
+        }
+    }
+
+    /**
+     * The smallest range covering every hour in [from, to] that is neither
+     * stored nor known to be missing upstream, or empty if there is none.
+     */
+    synchronized Optional<TimeRange> missing(long from, long to) {
+        long first = -1, last = -1;
+        for (long hour = ceilHour(from); hour <= to; hour += 3600) {
+            Segment seg = segments.get(segmentStart(hour));
+            if (seg != null && seg.covers(hour)) continue;
+            if (first < 0) first = hour;
+            last = hour;
+        }
+        if (first < 0) return Optional.empty();
+        // Widen to the neighbouring uncovered seconds so the bounds are not on an hour an upstream may treat as exclusive
+        return Optional.of(new TimeRange(Math.max(first - 3599, from), Math.min(last + 3599, to)));
+    }
+
+    /** Stored readings with from <= dt <= to, oldest first. */
+    synchronized List<PollutionSample> read(long from, long to) throws IOException {
+        if (from < windowFrom) {
+            window.clear();
+            for (Segment seg : segments.tailMap(segmentStart(from), true).values()) {
+                seg.read(from, Long.MAX_VALUE, window);
+            }
+            window.sort(Comparator.comparingLong(PollutionSample::dt));
+            windowFrom = from;
+        } else if (from - windowFrom > spanSeconds) {
+            // The window slides forward with the requests; drop what no longer falls in it
+            window.subList(0, indexOf(from)).clear();
+            windowFrom = from;
+        }
+        return new ArrayList<>(window.subList(indexOf(from), indexOf(to + 1)));
+    }
+
+    private void insertIntoWindow(PollutionSample s) {
+        int i = indexOf(s.dt());
+        if (i < window.size() && window.get(i).dt() == s.dt()) return;
+        window.add(i, s);
+    }
+
+    /** Index of the first window entry with dt >= t. */
+    private int indexOf(long t) {
+        int lo = 0, hi = window.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (window.get(mid).dt() < t) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private Segment segment(long start) throws IOException {
+        Segment seg = segments.get(start);
+        if (seg == null) {
+            Files.createDirectories(dir);
+            seg = Segment.open(dir.resolve(start + SUFFIX), start);
+            segments.put(start, seg);
+        }
+        return seg;
+    }
+
+    private long segmentStart(long dt) {
+        return Math.floorDiv(dt, spanSeconds) * spanSeconds;
+    }
+
+    private static long ceilHour(long t) {
+        return Math.floorDiv(t + 3599, 3600) * 3600;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.aqi_backend.store;
+
+import com.example.aqi_backend.cache.GeoHash;
+import com.example.aqi_backend.client.PollutionSample;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded, append-only store of every air-pollution reading the backend
+ * fetches, so history can be answered locally.
+ *
+ * Layout: {aqi.store.dir}/{geohash}/{segmentStart}.seg. A location is a
+ * geohash cell (aqi.store.precision); each segment file holds one
+ * aqi.store.segment-span of hourly readings. The segments of a location are
+ * indexed by start time in memory and loaded on first use.
+ *
+ * History is fetched incrementally. Old holes are back-filled once; the
+ * recent hours past a location's high-watermark (its newest stored dt) are
+ * asked for at most once per aqi.store.refresh-interval, and not at all
+ * once the watermark has reached the current hour.
+ *
+ * Write failures never fail the request that produced the reading; they are
+ * counted in aqi.store.append{result=failed}. With aqi.store.enabled=false
+ * every range is loaded upstream.
+ */
+@Component
+public class ReadingStore {
+
+    /** Hours older than this that upstream did not return are treated as permanent gaps. */
+    private static final long SETTLED_AFTER_SECONDS = 2 * 3600;
+
+    @FunctionalInterface
+    public interface RangeLoader {
+        List<PollutionSample> load(long from, long to) throws Exception;
+    }
+
+    private final boolean enabled;
+    private final Path root;
+    private final int precision;
+    private final long spanSeconds;
+    private final long refreshSeconds;
+    private final ConcurrentHashMap<String, LocationSeries> series = new ConcurrentHashMap<>();
+    private final Counter appended;
+    private final Counter appendFailed;
+    private final Counter fillFailed;
+
+    public ReadingStore(MeterRegistry meterRegistry,
+                        @Value("${aqi.store.enabled:true}") boolean enabled,
+                        @Value("${aqi.store.dir:data/readings}") Path root,
+                        @Value("${aqi.store.precision:6}") int precision,
+                        @Value("${aqi.store.segment-span:7d}") Duration segmentSpan,
+                        @Value("${aqi.store.refresh-interval:10m}") Duration refreshInterval) {
+        if (segmentSpan.getSeconds() <= 0 || segmentSpan.getSeconds() % 3600 != 0) {
+            throw new IllegalArgumentException("aqi.store.segment-span must be a whole number of hours");
+        }
+        GeoHash.encode(0, 0, precision); // fail fast on a bad precision setting
+        this.enabled     = enabled;
+        this.root        = root;
+        this.precision   = precision;
+        this.spanSeconds = segmentSpan.getSeconds();
+        this.refreshSeconds = refreshInterval.getSeconds();
+        this.appended     = Counter.builder("aqi.store.append").tag("result", "ok").register(meterRegistry);
+        this.appendFailed = Counter.builder("aqi.store.append").tag("result", "failed").register(meterRegistry);
+        this.fillFailed   = Counter.builder("aqi.store.fill").tag("result", "failed").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(double lat, double lon, PollutionSample sample) {
+        append(lat, lon, List.of(sample));
+    }
+
+    public void append(double lat, double lon, List<PollutionSample> samples) {
+        if (!enabled || samples.isEmpty()) return;
+        try {
+            series(lat, lon).append(samples);
+            appended.increment();
+        } catch (IOException | UncheckedIOException e) {
+            appendFailed.increment();
+        }
+    }
+
+    /**
+     * Readings for [from, to], oldest first. Hours the store has never seen
+     * are loaded through loader as one range and appended; the result is
+     * served from the location's cached window. If the loader fails, whatever
+     * the store already holds is served instead; the failure only propagates
+     * when there is nothing stored for the range.
+     */
+    public List<PollutionSample> range(double lat, double lon, long from, long to, RangeLoader loader) throws Exception {
+        if (!enabled) return loader.load(from, to);
+
+        LocationSeries s = series(lat, lon);
+        if (needsFetch(s, from, to)) {
+            s.fillLock.lock();
+            try {
+                // Re-check: another request may have filled the gap while we waited
+                Optional<TimeRange> gap = s.missing(from, to);
+                if (gap.isPresent()) {
+                    TimeRange g = gap.get();
+                    List<PollutionSample> loaded;
+                    try {
+                        loaded = loader.load(g.from(), g.to());
+                    } catch (Exception e) {
+                        fillFailed.increment();
+                        List<PollutionSample> stored = s.read(from, to);
+                        if (stored.isEmpty()) throw e;
+                        return stored;
+                    }
+                    s.append(loaded);
+                    long settled = Instant.now().getEpochSecond() - SETTLED_AFTER_SECONDS;
+                    if (g.from() <= settled) s.markChecked(g.from(), Math.min(g.to(), settled));
+                }
+            } finally {
+                s.fillLock.unlock();
+            }
+        }
+        return s.read(from, to);
+    }
+
+    private boolean needsFetch(LocationSeries s, long from, long to) {
+        Optional<TimeRange> gap = s.missing(from, to);
+        if (gap.isEmpty()) return false;
+
+        long now = Instant.now().getEpochSecond();
+        // Nothing stored yet, or an old hole: back-fill it now
+        if (s.latest() == Long.MIN_VALUE || gap.get().from() <= now - SETTLED_AFTER_SECONDS) return true;
+        // Only recent hours are missing, i.e. the delta past the watermark: poll it, but not on every request
+        return s.tryRefresh(now, refreshSeconds);
+    }
+
+    private LocationSeries series(double lat, double lon) {
+        String cell = GeoHash.encode(lat, lon, precision);
+        return series.computeIfAbsent(cell, c -> {
+            try {
+                return LocationSeries.load(root.resolve(c), spanSeconds);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.aqi_backend.store;
+
+import com.example.aqi_backend.client.PollutionSample;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * One segment file: the readings of one location for one fixed time span,
+ * stored as fixed-size records in arrival order.
+ *
+ * Record layout (72 bytes, big-endian): dt, pm25, pm10, no2, o3, co, so2,
+ * nh3, no. Each hour of the span holds at most one record; the first one
+ * written wins. Reads go through a read-only mapping of the file that is
+ * re-created only when the file has grown since the last read.
+ * Not thread-safe; LocationSeries serializes access.
+ */
+final class Segment {
+
+    static final int RECORD_BYTES = Long.BYTES + 8 * Double.BYTES;
+
+    private final Path file;
+    private final long start;
+    private final BitSet present = new BitSet();  // hour slots with a record on disk
+    private final BitSet checked = new BitSet();  // hour slots upstream had nothing for (not persisted)
+
+    private int count;
+    private long latest = Long.MIN_VALUE;
+    private MappedByteBuffer mapped;
+    private int mappedCount;
+
+    private Segment(Path file, long start) {
+        this.file  = file;
+        this.start = start;
+    }
+
+    /** Opens an existing segment file (dropping a torn trailing record) or prepares a new one. */
+    static Segment open(Path file, long start) throws IOException {
+        Segment s = new Segment(file, start);
+        if (Files.exists(file)) {
+            long size = Files.size(file);
+            if (size % RECORD_BYTES != 0) {
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    ch.truncate(size - size % RECORD_BYTES);
+                }
+            }
+            s.count = (int) (size / RECORD_BYTES);
+            ByteBuffer buf = s.map();
+            for (int i = 0; i < s.count; i++) {
+                long dt = buf.getLong(i * RECORD_BYTES);
+                s.present.set(s.slot(dt));
+                s.latest = Math.max(s.latest, dt);
+            }
+        }
+        return s;
+    }
+
+    long start() {
+        return start;
+    }
+
+    /** Newest dt in this segment, or Long.MIN_VALUE if it is empty. */
+    long latest() {
+        return latest;
+    }
+
+    boolean covers(long hour) {
+        int slot = slot(hour);
+        return present.get(slot) || checked.get(slot);
+    }
+
+    void markChecked(long hour) {
+        checked.set(slot(hour));
+    }
+
+    /** Appends the samples whose hour is not stored yet; returns the ones written. */
+    List<PollutionSample> append(List<PollutionSample> samples) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(samples.size() * RECORD_BYTES);
+        BitSet added = new BitSet();
+        List<PollutionSample> written = new ArrayList<>();
+        for (PollutionSample s : samples) {
+            int slot = slot(s.dt());
+            if (present.get(slot) || added.get(slot)) continue;
+            added.set(slot);
+            written.add(s);
+            latest = Math.max(latest, s.dt());
+            buf.putLong(s.dt())
+               .putDouble(s.pm25()).putDouble(s.pm10()).putDouble(s.no2()).putDouble(s.o3())
+               .putDouble(s.co()).putDouble(s.so2()).putDouble(s.nh3()).putDouble(s.no());
+        }
+        if (written.isEmpty()) return written;
+
+        buf.flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+        present.or(added);
+        count += written.size();
+        return written;
+    }
+
+    /** Adds every record with from <= dt <= to to out, in file order. */
+    void read(long from, long to, List<PollutionSample> out) throws IOException {
+        if (count == 0) return;
+        ByteBuffer buf = map();
+        for (int i = 0; i < count; i++) {
+            int p = i * RECORD_BYTES;
+            long dt = buf.getLong(p);
+            if (dt < from || dt > to) continue;
+            out.add(new PollutionSample(dt,
+                    buf.getDouble(p + 8),  buf.getDouble(p + 16), buf.getDouble(p + 24), buf.getDouble(p + 32),
+                    buf.getDouble(p + 40), buf.getDouble(p + 48), buf.getDouble(p + 56), buf.getDouble(p + 64)));
+        }
+    }
+
+    private int slot(long dt) {
+        return (int) ((dt - start) / 3600);
+    }
+
+    private ByteBuffer map() throws IOException {
+        if (mapped == null || mappedCount != count) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * RECORD_BYTES);
+            }
+            mappedCount = count;
+        }
+        return mapped;
+    }
+}
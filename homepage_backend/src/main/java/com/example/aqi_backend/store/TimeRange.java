@@ -0,0 +1,9 @@
+package com.example.aqi_backend.store;
+
+/** Inclusive range of epoch seconds. */
+public record TimeRange(long from, long to) {
+
+    public TimeRange {
+        if (to < from) throw new IllegalArgumentException("to < from");
+    }
+}
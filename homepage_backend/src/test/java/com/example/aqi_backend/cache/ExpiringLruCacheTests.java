@@ -0,0 +1,38 @@
+package com.example.aqi_backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringLruCacheTests {
+
+	private final AtomicLong now = new AtomicLong();
+	private final ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, now::get);
+
+	@Test
+	void entriesExpireAfterTtl() {
+		cache.put("kochi", "9.93,76.26", Duration.ofSeconds(10));
+		assertThat(cache.get("kochi")).isEqualTo("9.93,76.26");
+
+		now.addAndGet(Duration.ofSeconds(10).toNanos());
+		assertThat(cache.get("kochi")).isNull();
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(cache.missCount()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		cache.put("delhi", "a", Duration.ofMinutes(1));
+		cache.put("mumbai", "b", Duration.ofMinutes(1));
+		cache.get("delhi");
+		cache.put("chennai", "c", Duration.ofMinutes(1));
+
+		assertThat(cache.get("mumbai")).isNull();
+		assertThat(cache.get("delhi")).isEqualTo("a");
+		assertThat(cache.evictionCount()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.example.aqi_backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+	private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+	@Test
+	void collapsesConcurrentCallsForTheSameKey() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<String> upstream = new CompletableFuture<>();
+
+		CompletableFuture<String> first = flight.executeAsync("kochi", () -> {
+			loads.incrementAndGet();
+			return upstream;
+		});
+		CompletableFuture<String> second = flight.executeAsync("kochi", () -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		upstream.complete("reading");
+
+		assertThat(first.get()).isEqualTo("reading");
+		assertThat(second.get()).isEqualTo("reading");
+		assertThat(loads).hasValue(1);
+		assertThat(flight.collapsedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void blockingCallerArrivingMidFlightGetsTheSameResult() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return flight.execute("kochi", () -> {
+					release.await();
+					return "reading";
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		while (flight.inFlightCount() == 0) Thread.onSpinWait();
+
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+			try {
+				return flight.execute("kochi", () -> "other");
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		while (flight.collapsedCount() == 0) Thread.onSpinWait();
+		release.countDown();
+
+		assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("reading");
+		assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("reading");
+		assertThat(flight.executedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void cancellingOneCallersCopyDoesNotCancelTheSharedLoad() throws Exception {
+		CompletableFuture<String> upstream = new CompletableFuture<>();
+		CompletableFuture<String> impatient = flight.executeAsync("kochi", () -> upstream);
+		CompletableFuture<String> patient = flight.executeAsync("kochi", () -> upstream);
+
+		impatient.cancel(true);
+		upstream.complete("reading");
+
+		assertThat(upstream).isNotCancelled();
+		assertThat(patient.get()).isEqualTo("reading");
+	}
+
+	@Test
+	void removesTheInFlightEntryOnceTheCallSucceedsOrFails() throws Exception {
+		CompletableFuture<String> ok = new CompletableFuture<>();
+		flight.executeAsync("kochi", () -> ok);
+		assertThat(flight.inFlightCount()).isEqualTo(1);
+		ok.complete("reading");
+		assertThat(flight.inFlightCount()).isZero();
+
+		CompletableFuture<String> failing = new CompletableFuture<>();
+		CompletableFuture<String> failed = flight.executeAsync("kochi", () -> failing);
+		failing.completeExceptionally(new IllegalStateException("upstream down"));
+		assertThat(failed).isCompletedExceptionally();
+		assertThat(flight.inFlightCount()).isZero();
+
+		assertThatThrownBy(() -> flight.execute("kochi", () -> {
+			throw new IllegalStateException("upstream down");
+		})).hasMessage("upstream down");
+		assertThat(flight.inFlightCount()).isZero();
+
+		// Nothing is cached: the next call loads again
+		assertThat(flight.execute("kochi", () -> "fresh")).isEqualTo("fresh");
+		assertThat(flight.executedCount()).isEqualTo(4);
+	}
+}
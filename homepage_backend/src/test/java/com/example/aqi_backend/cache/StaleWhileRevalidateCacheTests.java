@@ -0,0 +1,69 @@
+package com.example.aqi_backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaleWhileRevalidateCacheTests {
+
+	// Every entry is stale as soon as it is stored, so each hit asks for a refresh
+	private static final Duration FRESH = Duration.ZERO;
+	private static final Duration MAX_STALE = Duration.ofMinutes(1);
+
+	private final List<Runnable> queued = new ArrayList<>();
+	private final StaleWhileRevalidateCache<String, String> cache =
+			new StaleWhileRevalidateCache<>(10, FRESH, MAX_STALE, queued::add);
+
+	@Test
+	void startsOneBackgroundRefreshPerKey() throws Exception {
+		cache.get("kochi", () -> "v1");
+		cache.get("delhi", () -> "v1");
+
+		for (int i = 0; i < 3; i++) {
+			Cached<String> hit = cache.get("kochi", () -> "unused", () -> "v2");
+			assertThat(hit.value()).isEqualTo("v1");
+			assertThat(hit.stale()).isTrue();
+		}
+		cache.getIfPresent("delhi", () -> "v2");
+		assertThat(queued).hasSize(2);
+
+		queued.remove(0).run();
+		assertThat(cache.getIfPresent("kochi", () -> "v3").value()).isEqualTo("v2");
+		// The finished refresh lets the next stale hit start another
+		assertThat(queued).hasSize(2);
+	}
+
+	@Test
+	void keepsTheOldEntryWhenARefreshFails() throws Exception {
+		cache.get("kochi", () -> "v1");
+		cache.getIfPresent("kochi", () -> {
+			throw new IllegalStateException("upstream down");
+		});
+
+		queued.remove(0).run();
+
+		assertThat(cache.getIfPresent("kochi", () -> "v2").value()).isEqualTo("v1");
+		assertThat(queued).hasSize(1);
+	}
+
+	@Test
+	void keepsTheOldEntryWhenTheExecutorRejectsTheRefresh() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		StaleWhileRevalidateCache<String, String> full = new StaleWhileRevalidateCache<>(10, FRESH, MAX_STALE, task -> {
+			attempts.incrementAndGet();
+			throw new RejectedExecutionException("refresh bulkhead full");
+		});
+		full.get("kochi", () -> "v1");
+
+		assertThat(full.getIfPresent("kochi", () -> "v2").value()).isEqualTo("v1");
+		assertThat(full.get("kochi", () -> "unused", () -> "v2").value()).isEqualTo("v1");
+		// A rejected refresh is not left marked as running
+		assertThat(attempts).hasValue(2);
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.aqi_backend.catalog;
+
+import com.example.aqi_backend.model.CitySuggestion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CityCatalogTests {
+
+	private final CityCatalog catalog = new CityCatalog(new SimpleMeterRegistry());
+
+	@Test
+	void prefixMatchesComeFirstByPopularity() {
+		assertThat(catalog.search("Koc", 5)).first().extracting(CitySuggestion::city).isEqualTo("Kochi");
+		assertThat(catalog.search("d", 3)).extracting(CitySuggestion::city).startsWith("Delhi");
+	}
+
+	@Test
+	void matchesAliasesDiacriticsAndTypos() {
+		assertThat(catalog.search("bombay", 5)).first().extracting(CitySuggestion::city).isEqualTo("Mumbai");
+		assertThat(catalog.search("Délhi", 5)).first().extracting(CitySuggestion::city).isEqualTo("Delhi");
+		assertThat(catalog.search("banglore", 5)).first().extracting(CitySuggestion::city).isEqualTo("Bengaluru");
+		assertThat(catalog.search("Thiruvanantapuram", 5)).first().extracting(CitySuggestion::city)
+				.isEqualTo("Thiruvananthapuram");
+	}
+
+	@Test
+	void includesMonitoringStations() {
+		assertThat(catalog.search("Eloor", 5)).extracting(CitySuggestion::city).containsExactly("Udyogamandal");
+		assertThat(catalog.search("Thavakkara", 5)).hasSize(1);
+	}
+
+	@Test
+	void unknownPrefixHasNoLocalMatch() {
+		assertThat(catalog.search("xyzq", 5)).isEmpty();
+		assertThat(catalog.search("  ", 5)).isEmpty();
+	}
+
+	@Test
+	void prefixLeavesOutTypoMatches() {
+		assertThat(catalog.prefix("bombay", 5)).first().extracting(CitySuggestion::city).isEqualTo("Mumbai");
+		assertThat(catalog.prefix("banglore", 5)).isEmpty();
+	}
+}
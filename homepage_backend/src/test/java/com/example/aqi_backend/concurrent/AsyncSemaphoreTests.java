@@ -0,0 +1,58 @@
+package com.example.aqi_backend.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncSemaphoreTests {
+
+	private static final Duration LONG = Duration.ofMinutes(1);
+
+	private final AsyncSemaphore semaphore = new AsyncSemaphore(1);
+
+	@Test
+	void handsReleasedPermitsToWaitersInArrivalOrder() {
+		assertThat(semaphore.acquire(LONG)).isDone();
+		CompletableFuture<Void> first = semaphore.acquire(LONG);
+		CompletableFuture<Void> second = semaphore.acquire(LONG);
+		assertThat(first).isNotDone();
+		assertThat(semaphore.queued()).isEqualTo(2);
+
+		semaphore.release();
+		assertThat(first).isCompleted();
+		assertThat(second).isNotDone();
+
+		semaphore.release();
+		assertThat(second).isCompleted();
+		semaphore.release();
+		assertThat(semaphore.inUse()).isZero();
+	}
+
+	@Test
+	void timedOutWaiterIsSkippedAndThePermitGoesToTheNext() throws Exception {
+		semaphore.acquire(LONG);
+		CompletableFuture<Void> impatient = semaphore.acquire(Duration.ofMillis(10));
+		CompletableFuture<Void> patient = semaphore.acquire(LONG);
+
+		assertThat(impatient.handle((v, t) -> t).get()).isInstanceOf(TimeoutException.class);
+
+		semaphore.release();
+		assertThat(patient).isCompleted();
+		assertThat(semaphore.inUse()).isEqualTo(1);
+	}
+
+	@Test
+	void cancelledWaiterIsSkipped() {
+		semaphore.acquire(LONG);
+		CompletableFuture<Void> cancelled = semaphore.acquire(LONG);
+		cancelled.cancel(false);
+
+		semaphore.release();
+		assertThat(semaphore.inUse()).isZero();
+		assertThat(semaphore.acquire(LONG)).isDone();
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.aqi_backend.cpcb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AqiSeriesTests {
+
+	private final AqiSeries series = AqiSeries.of(new long[] {3600, 7200, 10800}, new int[] {100, 200, 140});
+
+	@Test
+	void interpolatesBetweenPointsAndClampsAtEnds() {
+		assertThat(series.at(3600)).isEqualTo(100);
+		assertThat(series.at(5400)).isEqualTo(150);
+		assertThat(series.at(9000)).isEqualTo(170);
+		assertThat(series.at(0)).isEqualTo(100);
+		assertThat(series.at(99_999)).isEqualTo(140);
+		assertThat(AqiSeries.EMPTY.at(3600)).isZero();
+	}
+
+	@Test
+	void alignMatchesPointLookups() {
+		long[] times = {0, 3600, 5400, 10800, 20000, 4000};
+		int[] out = new int[times.length];
+		series.alignTo(times, out);
+		for (int i = 0; i < times.length; i++) {
+			assertThat(out[i]).isEqualTo(series.at(times[i]));
+		}
+	}
+
+	@Test
+	void sortsInputAndKeepsLastDuplicate() {
+		AqiSeries unsorted = AqiSeries.of(new long[] {7200, 3600, 7200}, new int[] {1, 2, 3});
+		assertThat(unsorted.size()).isEqualTo(2);
+		assertThat(unsorted.at(3600)).isEqualTo(2);
+		assertThat(unsorted.at(7200)).isEqualTo(3);
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.aqi_backend.cpcb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CpcbAqiTests {
+
+	@Test
+	void subIndexFollowsBreakpoints() {
+		assertThat(CpcbAqi.subIndex(Pollutant.PM25, 30)).isEqualTo(50.0);
+		assertThat(CpcbAqi.subIndex(Pollutant.PM25, 30.0001)).isGreaterThan(51.0);
+		assertThat(CpcbAqi.subIndex(Pollutant.PM10, 100)).isEqualTo(100.0);
+		assertThat(CpcbAqi.subIndex(Pollutant.CO, 1500)).isEqualTo(75.5);
+		assertThat(CpcbAqi.subIndex(Pollutant.SO2, 5000)).isEqualTo(CpcbAqi.MAX_INDEX);
+		assertThat(CpcbAqi.subIndex(Pollutant.O3, 0)).isZero();
+	}
+
+	@Test
+	void aqiIsZeroWhenNothingReported() {
+		assertThat(CpcbAqi.aqi(0, 0, 0, 0, 0, 0)).isZero();
+	}
+
+	@Test
+	void batchMatchesScalar() {
+		int n = 3000;
+		Random random = new Random(42);
+		double[][] columns = new double[6][n];
+		for (double[] column : columns) {
+			for (int i = 0; i < n; i++) column[i] = random.nextDouble() * 700 - 20;
+		}
+		for (int i = 0; i < n; i++) columns[4][i] *= 80;   // CO arrives in µg/m³
+
+		int[] batch = new int[n];
+		CpcbAqi.aqi(columns[0], columns[1], columns[2], columns[3], columns[4], columns[5], batch, n);
+
+		for (int i = 0; i < n; i++) {
+			assertThat(batch[i]).isEqualTo(CpcbAqi.aqi(columns[0][i], columns[1][i], columns[2][i],
+					columns[3][i], columns[4][i], columns[5][i]));
+		}
+	}
+
+	@Test
+	void readingSubIndicesFeedTheAqi() {
+		double[] cp = {45, 120, 0, 60, 1500, 10};   // Pollutant order
+		double[] sub = new double[cp.length];
+		CpcbAqi.subIndices(cp, sub);
+
+		for (Pollutant p : Pollutant.values()) {
+			assertThat(sub[p.ordinal()]).isEqualTo(CpcbAqi.subIndex(p, cp[p.ordinal()]));
+		}
+		assertThat(CpcbAqi.aqiOf(sub)).isEqualTo(CpcbAqi.aqi(45, 120, 0, 60, 1500, 10));
+	}
+}
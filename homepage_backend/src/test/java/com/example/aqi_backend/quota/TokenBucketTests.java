@@ -0,0 +1,39 @@
+package com.example.aqi_backend.quota;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	private final AtomicLong now = new AtomicLong(0);
+	private final TokenBucket bucket = new TokenBucket(60, 10, now::get);  // one token per second
+
+	@Test
+	void allowsBurstThenWaitsForRefill() {
+		for (int i = 0; i < 10; i++) assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND);
+		now.addAndGet(SECOND);
+		assertThat(bucket.tryAcquire(0)).isZero();
+	}
+
+	@Test
+	void lowerPrioritiesLeaveTheReserveUntouched() {
+		for (int i = 0; i < 5; i++) assertThat(bucket.tryAcquire(0.5)).isZero();
+		assertThat(bucket.tryAcquire(0.5)).isPositive();
+		assertThat(bucket.available()).isEqualTo(5.0);
+		for (int i = 0; i < 5; i++) assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.available()).isZero();
+	}
+
+	@Test
+	void refillsUpToBurstOnly() {
+		bucket.tryAcquire(0);
+		now.addAndGet(3600 * SECOND);
+		assertThat(bucket.available()).isEqualTo(10.0);
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.aqi_backend.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	private final AdaptiveLimiter limiter = new AdaptiveLimiter(4, 2, 10, 3 * SECOND, 0.5);
+
+	@Test
+	void rejectsOverTheLimit() {
+		for (int i = 0; i < 4; i++) assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isFalse();
+		limiter.onComplete(SECOND / 10, false);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void growsWhileBusyAndFast() {
+		for (int i = 0; i < 4; i++) limiter.tryAcquire();
+		limiter.onComplete(SECOND / 10, false);
+		assertThat(limiter.limit()).isEqualTo(5);
+	}
+
+	@Test
+	void doesNotGrowWhenMostlyIdle() {
+		limiter.tryAcquire();
+		limiter.onComplete(SECOND / 10, false);
+		assertThat(limiter.limit()).isEqualTo(4);
+	}
+
+	@Test
+	void shrinksOnSlowOrFailedRequestsDownToMin() {
+		limiter.tryAcquire();
+		limiter.onComplete(5 * SECOND, false);
+		assertThat(limiter.limit()).isEqualTo(2);
+		limiter.tryAcquire();
+		limiter.onComplete(SECOND / 10, true);
+		assertThat(limiter.limit()).isEqualTo(2);
+		assertThat(limiter.inFlight()).isZero();
+	}
+}
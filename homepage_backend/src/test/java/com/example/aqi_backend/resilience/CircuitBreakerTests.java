@@ -0,0 +1,68 @@
+package com.example.aqi_backend.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	private final AtomicLong now = new AtomicLong(0);
+	private final CircuitBreaker breaker = new CircuitBreaker(3, 30 * SECOND, now::get);
+
+	@Test
+	void opensAfterConsecutiveFailures() {
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+		breaker.onFailure();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryPass()).isFalse();
+		assertThat(breaker.remainingOpenNanos()).isEqualTo(30 * SECOND);
+	}
+
+	@Test
+	void letsOneProbeThroughAfterOpenDuration() {
+		for (int i = 0; i < 3; i++) breaker.onFailure();
+		now.addAndGet(30 * SECOND);
+		assertThat(breaker.tryPass()).isTrue();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryPass()).isFalse();
+		breaker.onSuccess();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryPass()).isTrue();
+	}
+
+	@Test
+	void lateSuccessDoesNotCloseAnOpenCircuit() {
+		for (int i = 0; i < 3; i++) breaker.onFailure();
+		breaker.onSuccess();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryPass()).isFalse();
+	}
+
+	@Test
+	void failedProbeReopens() {
+		for (int i = 0; i < 3; i++) breaker.onFailure();
+		now.addAndGet(30 * SECOND);
+		assertThat(breaker.tryPass()).isTrue();
+		breaker.onFailure();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryPass()).isFalse();
+	}
+
+	@Test
+	void ignoredProbeFreesTheSlot() {
+		for (int i = 0; i < 3; i++) breaker.onFailure();
+		now.addAndGet(30 * SECOND);
+		assertThat(breaker.tryPass()).isTrue();
+		breaker.onIgnored();
+		assertThat(breaker.tryPass()).isTrue();
+	}
+}
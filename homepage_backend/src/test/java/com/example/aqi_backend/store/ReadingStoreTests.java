@@ -0,0 +1,119 @@
+package com.example.aqi_backend.store;
+
+import com.example.aqi_backend.client.PollutionSample;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadingStoreTests {
+
+	private static final long T0 = 1_700_000_000L / 3600 * 3600;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void loadsOnlyTheMissingRangeAndServesTheRestFromDisk() throws Exception {
+		ReadingStore store = new ReadingStore(new SimpleMeterRegistry(), true, dir, 6, Duration.ofDays(1), Duration.ofMinutes(10));
+		store.append(9.93, 76.26, samples(T0 + 10 * 3600, T0 + 20 * 3600));
+
+		List<long[]> loads = new ArrayList<>();
+		List<PollutionSample> out = store.range(9.93, 76.26, T0, T0 + 20 * 3600, (from, to) -> {
+			loads.add(new long[] {from, to});
+			return samples(from, to);
+		});
+
+		assertThat(out).hasSize(21);
+		assertThat(out).extracting(PollutionSample::dt).isSorted();
+		assertThat(loads).hasSize(1);
+		assertThat(loads.get(0)).containsExactly(T0, T0 + 9 * 3600 + 3599);
+	}
+
+	@Test
+	void survivesRestartWithoutGoingUpstream() throws Exception {
+		new ReadingStore(new SimpleMeterRegistry(), true, dir, 6, Duration.ofDays(1), Duration.ofMinutes(10)).append(9.93, 76.26, samples(T0, T0 + 47 * 3600));
+
+		AtomicInteger loads = new AtomicInteger();
+		List<PollutionSample> out = new ReadingStore(new SimpleMeterRegistry(), true, dir, 6, Duration.ofDays(1), Duration.ofMinutes(10))
+				.range(9.93, 76.26, T0, T0 + 47 * 3600, (from, to) -> {
+					loads.incrementAndGet();
+					return List.of();
+				});
+
+		assertThat(out).hasSize(48);
+		assertThat(out.get(47).pm25()).isEqualTo(47.0);
+		assertThat(loads).hasValue(0);
+	}
+
+	@Test
+	void settledGapsAreNotRequestedTwice() throws Exception {
+		ReadingStore store = new ReadingStore(new SimpleMeterRegistry(), true, dir, 6, Duration.ofDays(1), Duration.ofMinutes(10));
+		AtomicInteger loads = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			store.range(9.93, 76.26, T0, T0 + 5 * 3600, (from, to) -> {
+				loads.incrementAndGet();
+				return List.of();
+			});
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void fetchesOnlyReadingsPastTheWatermarkAndThrottlesRepeats() throws Exception {
+		long now = Instant.now().getEpochSecond();
+		long hour = now - now % 3600;
+		ReadingStore store = new ReadingStore(new SimpleMeterRegistry(), true, dir, 6, Duration.ofDays(7), Duration.ofMinutes(10));
+		// Stored up to the previous hour, so only the current hour (after now - 2h) is missing
+		store.append(9.93, 76.26, samples(now - 5 * 86400, hour - 3600));
+
+		List<long[]> loads = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			List<PollutionSample> out = store.range(9.93, 76.26, now - 5 * 86400, now, (from, to) -> {
+				loads.add(new long[] {from, to});
+				// Upstream has not published the current hour yet
+				return List.of();
+			});
+			assertThat(out.get(out.size() - 1).dt()).isEqualTo(hour - 3600);
+		}
+
+		// The hour is still missing, but repeats inside the refresh interval do not go upstream
+		assertThat(loads).hasSize(1);
+		assertThat(loads.get(0)[0]).isGreaterThan(hour - 3600);
+	}
+
+	@Test
+	void servesStoredReadingsWhenTheLoaderFails() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ReadingStore store = new ReadingStore(registry, true, dir, 6, Duration.ofDays(1), Duration.ofMinutes(10));
+		store.append(9.93, 76.26, samples(T0 + 10 * 3600, T0 + 20 * 3600));
+
+		List<PollutionSample> out = store.range(9.93, 76.26, T0, T0 + 20 * 3600, (from, to) -> {
+			throw new IllegalStateException("upstream down");
+		});
+
+		assertThat(out).hasSize(11);
+		assertThat(registry.get("aqi.store.fill").tag("result", "failed").counter().count()).isEqualTo(1.0);
+		assertThatThrownBy(() -> store.range(19.07, 72.87, T0, T0 + 20 * 3600, (from, to) -> {
+			throw new IllegalStateException("upstream down");
+		})).hasMessage("upstream down");
+	}
+
+	private static List<PollutionSample> samples(long from, long to) {
+		List<PollutionSample> list = new ArrayList<>();
+		for (long dt = (from + 3599) / 3600 * 3600; dt <= to; dt += 3600) {
+			double v = (dt - T0) / 3600.0;
+			list.add(new PollutionSample(dt, v, v, v, v, v, v, v, v));
+		}
+		return list;
+	}
+}